@@ -0,0 +1,20 @@
+package com.hexaware.Benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+    //-> Runs every benchmark in this package, or only those matching the regex given as first argument
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : OrderProcessorRepositoryBenchmark.class.getSimpleName();
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .result("bench_output.json")
+                .build();
+        new Runner(options).run();
+    }
+}
\ No newline at end of file
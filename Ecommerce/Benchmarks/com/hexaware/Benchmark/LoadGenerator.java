@@ -0,0 +1,424 @@
+package com.hexaware.Benchmark;
+
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Product;
+import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Service.RepositoryMetrics;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.DBPropertyUtil;
+import com.hexaware.Util.LatencyHistogram;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+import com.hexaware.Util.ThreadUtil;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//-> Soak test: drives the repository with a weighted mix of shopper operations against an in-memory H2 database
+//-> and prints throughput, errors and latency percentiles per interval, then for the whole run.
+//->
+//-> Arguments are key=value pairs. Keys without a dot configure the load (see the defaults below),
+//-> keys with a dot override the repository settings read from db.properties, e.g. orders.groupCommit.enabled=true.
+//->   threads=16 rate=0 (ops/s over all threads, 0: as fast as the threads go) duration=60 interval=5 (seconds)
+//->   customers=1000 products=10000 zipf=1.0 basket=3 schema=../SQL Queries
+//->   mix=register:2,addToCart:40,viewCart:25,placeOrder:15,history:18
+//->
+//-> With a rate, latency is measured from when each operation was due rather than when it started,
+//-> so a stall shows up in the percentiles instead of quietly lowering the offered load.
+public class LoadGenerator {
+    private static final int SEED_STOCK = 1_000_000_000;
+    private static final int RECENT_CUSTOMERS = 4096;
+    private static final int HISTORY_PAGE_SIZE = 20;
+    //-> One basket buffer per worker thread, reused for every order it places
+    private static final ThreadLocal<OrderLines> ORDER_LINES = ThreadLocal.withInitial(OrderLines::new);
+
+    enum Operation { REGISTER, ADD_TO_CART, VIEW_CART, PLACE_ORDER, HISTORY }
+
+    private final Map<String, String> options;
+    private final Properties properties;
+    private final int threads;
+    private final double rate;
+    private final long durationNanos;
+    private final long intervalSeconds;
+    private final int customerCount;
+    private final int productCount;
+    private final int basketSize;
+    private final ZipfGenerator popularity;
+    private final Operation[] operations = Operation.values();
+    private final int[] cumulativeWeights = new int[operations.length];
+
+    private ConnectionPool pool;
+    private OrderProcessorRepositoryImpl repositoryImpl;
+    private OrderProcessorRepository repository;
+    private Product[] catalog;
+    private int[] productIdsByRank;
+
+    //-> Customers registered during the run, picked alongside the seeded ones (0: slot not written yet)
+    private final AtomicIntegerArray recentCustomers = new AtomicIntegerArray(RECENT_CUSTOMERS);
+    private final AtomicLong registered = new AtomicLong();
+
+    //-> Per operation: whole-run histogram, the current interval's histogram (swapped by the reporter) and failures
+    private final LatencyHistogram[] totals = new LatencyHistogram[operations.length];
+    private final List<AtomicReference<LatencyHistogram>> intervals = new ArrayList<>();
+    private final LongAdder[] errors = new LongAdder[operations.length];
+    private final long[] errorsReported = new long[operations.length];
+    private final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public LoadGenerator(Map<String, String> options, Properties properties) {
+        this.options = options;
+        this.properties = properties;
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "60")));
+        this.intervalSeconds = Long.parseLong(options.getOrDefault("interval", "5"));
+        this.customerCount = Integer.parseInt(options.getOrDefault("customers", "1000"));
+        this.productCount = Integer.parseInt(options.getOrDefault("products", "10000"));
+        this.basketSize = Integer.parseInt(options.getOrDefault("basket", "3"));
+        this.popularity = new ZipfGenerator(productCount, Double.parseDouble(options.getOrDefault("zipf", "1.0")));
+        parseMix(options.getOrDefault("mix", "register:2,addToCart:40,viewCart:25,placeOrder:15,history:18"));
+
+        for (int i = 0; i < operations.length; i++) {
+            totals[i] = new LatencyHistogram();
+            intervals.add(new AtomicReference<>(new LatencyHistogram()));
+            errors[i] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        Properties properties = new File("db.properties").exists() ? DBPropertyUtil.getProperties("db.properties") : new Properties();
+        properties.setProperty("metrics.name", "LoadGenerator");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, equals);
+            String value = arg.substring(equals + 1);
+            if (key.indexOf('.') >= 0) {
+                properties.setProperty(key, value);
+            } else {
+                options.put(key, value);
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(options, properties);
+        generator.setUp();
+        try {
+            generator.run();
+        } finally {
+            generator.tearDown();
+        }
+    }
+
+    //-> Fresh in-memory database from the real schema, seeded with customers and a catalog with plenty of stock
+    public void setUp() throws Exception {
+        String url = "jdbc:h2:mem:load" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        PoolConfig config = new PoolConfig(url, "sa", "");
+        config.setMaxSize(DBPropertyUtil.getInt(properties, "db.pool.maxSize", threads));
+        config.setStatementCacheSize(DBPropertyUtil.getInt(properties, "db.pool.statementCacheSize", 64));
+        pool = new ConnectionPool(config);
+
+        try (Connection connection = pool.getConnection()) {
+            SchemaUtil.createSchema(connection, options.getOrDefault("schema", "../SQL Queries"));
+            seedDatabase(connection);
+        }
+
+        //-> Zipf ranks map to shuffled product ids, so the hot products are spread over the catalog
+        Random random = new Random(42);
+        productIdsByRank = new int[productCount];
+        for (int i = 0; i < productCount; i++) {
+            int j = random.nextInt(i + 1);
+            productIdsByRank[i] = productIdsByRank[j];
+            productIdsByRank[j] = i + 1;
+        }
+
+        repositoryImpl = new OrderProcessorRepositoryImpl(pool, properties);
+        repository = RepositoryMetrics.instrument(repositoryImpl, properties);
+    }
+
+    private void seedDatabase(Connection connection) throws Exception {
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO customers (name, email, password) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= customerCount; i++) {
+                statement.setString(1, "Customer " + i);
+                statement.setString(2, "customer" + i + "@example.com");
+                statement.setString(3, "secret");
+                statement.addBatch();
+                if (i % 1000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+
+        catalog = new Product[productCount + 1];
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO products (product_name, price, description, stockQuantity) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= productCount; i++) {
+                catalog[i] = new Product(i, "Product " + i, 10 + (i % 500), "Load test product number " + i, SEED_STOCK);
+                statement.setString(1, catalog[i].getName());
+                statement.setDouble(2, catalog[i].getPrice());
+                statement.setString(3, catalog[i].getDescription());
+                statement.setInt(4, SEED_STOCK);
+                statement.addBatch();
+                if (i % 1000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    public void run() throws InterruptedException {
+        System.out.printf("Load: %d threads, %s, %d s, %d customers, %d products%n", threads,
+                rate > 0 ? String.format("%.0f ops/s", rate) : "closed loop", TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+                customerCount, productCount);
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, ThreadUtil.daemonThreadFactory("load"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(ThreadUtil.daemonThreadFactory("load-report"));
+        long start = System.nanoTime();
+        reporter.scheduleAtFixedRate(() -> reportInterval(start), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            workers.execute(() -> work(worker, start));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS)) {
+            running = false;
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        reporter.shutdownNow();
+
+        reportSummary(System.nanoTime() - start);
+    }
+
+    public void tearDown() throws Exception {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        pool.close();
+    }
+
+    //-> One worker: closed loop, or every threads / rate seconds on its own schedule when a rate is set
+    private void work(int worker, long start) {
+        long end = start + durationNanos;
+        long period = rate > 0 ? (long) (threads * 1_000_000_000L / rate) : 0;
+        long due = start + period * worker / Math.max(1, threads);
+
+        while (running) {
+            long now = System.nanoTime();
+            if (period > 0) {
+                if (due - now > 0) {
+                    LockSupport.parkNanos(due - now);
+                }
+            } else {
+                due = now;
+            }
+            if (due - end >= 0) {
+                return;
+            }
+
+            Operation operation = pickOperation();
+            boolean ok;
+            try {
+                ok = execute(operation);
+            } catch (Exception e) {
+                errorTypes.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder()).increment();
+                ok = false;
+            }
+            long latency = System.nanoTime() - due;
+            totals[operation.ordinal()].record(latency);
+            intervals.get(operation.ordinal()).get().record(latency);
+            if (!ok) {
+                errors[operation.ordinal()].increment();
+            }
+            due += period;
+        }
+    }
+
+    private boolean execute(Operation operation) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case REGISTER: {
+                long n = System.nanoTime();
+                Customer customer = new Customer("Load " + n, "load" + n + "-" + Thread.currentThread().getId() + "@example.com", "secret");
+                if (!repository.createCustomer(customer)) {
+                    return false;
+                }
+                recentCustomers.set((int) (registered.getAndIncrement() % RECENT_CUSTOMERS), customer.getCustomerId());
+                return true;
+            }
+            case ADD_TO_CART:
+                return repository.addToCart(randomCustomer(random), randomProduct(random), 1 + random.nextInt(2));
+            case VIEW_CART:
+                repository.getAllFromCart(randomCustomer(random));
+                return true;
+            case PLACE_ORDER: {
+                //-> Checkout what is in the cart, or a fresh basket by product id when the cart is empty
+                Customer customer = randomCustomer(random);
+                List<Product> products = repository.getAllFromCart(customer);
+                OrderLines lines = ORDER_LINES.get();
+                lines.clear();
+                if (products.isEmpty()) {
+                    int lineCount = 1 + random.nextInt(basketSize);
+                    for (int i = 0; i < lineCount; i++) {
+                        lines.add(randomProduct(random).getProductId(), 1);
+                    }
+                } else {
+                    for (Product product : products) {
+                        lines.add(product.getProductId(), 1, product.getName(), product.getPrice());
+                    }
+                }
+                return repository.placeOrder(customer.getCustomerId(), lines, "1 Load Test Street");
+            }
+            case HISTORY:
+                repository.getOrderHistoryPage(randomCustomer(random).getCustomerId(), null, HISTORY_PAGE_SIZE);
+                return true;
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    //-> Reporting
+    private void reportInterval(long start) {
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        StringBuilder line = new StringBuilder(String.format("[%5ds]", elapsed));
+        long count = 0;
+        long failed = 0;
+        for (int i = 0; i < operations.length; i++) {
+            LatencyHistogram histogram = intervals.get(i).getAndSet(new LatencyHistogram());
+            long errorTotal = errors[i].sum();
+            count += histogram.getCount();
+            failed += errorTotal - errorsReported[i];
+            errorsReported[i] = errorTotal;
+            if (histogram.getCount() > 0) {
+                line.append(String.format(" %s p50=%.2f p99=%.2f max=%.2f |", name(operations[i]),
+                        millis(histogram.getPercentileNanos(50)), millis(histogram.getPercentileNanos(99)), millis(histogram.getMaxNanos())));
+            }
+        }
+        line.insert(8, String.format(" %8.0f ops/s %6d err |", (double) count / intervalSeconds, failed));
+        System.out.println(line);
+    }
+
+    private void reportSummary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%nSummary over %.1f s (latency in ms)%n", seconds);
+        System.out.printf("%-12s %10s %10s %8s %8s %8s %8s %8s %8s %8s%n",
+                "operation", "count", "ops/s", "err %", "mean", "p50", "p90", "p99", "p99.9", "max");
+        long count = 0;
+        long failed = 0;
+        for (int i = 0; i < operations.length; i++) {
+            LatencyHistogram histogram = totals[i];
+            long errorTotal = errors[i].sum();
+            count += histogram.getCount();
+            failed += errorTotal;
+            System.out.printf("%-12s %10d %10.0f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n", name(operations[i]),
+                    histogram.getCount(), histogram.getCount() / seconds, percent(errorTotal, histogram.getCount()),
+                    histogram.getMeanNanos() / 1e6, millis(histogram.getPercentileNanos(50)), millis(histogram.getPercentileNanos(90)),
+                    millis(histogram.getPercentileNanos(99)), millis(histogram.getPercentileNanos(99.9)), millis(histogram.getMaxNanos()));
+        }
+        System.out.printf("%-12s %10d %10.0f %8.2f%n", "total", count, count / seconds, percent(failed, count));
+        if (rate > 0 && count / seconds < rate * 0.95) {
+            System.out.printf("Warning: achieved %.0f ops/s of the %.0f requested, the system (or the generator) is saturated%n",
+                    count / seconds, rate);
+        }
+        errorTypes.forEach((type, n) -> System.out.println("Exceptions " + type + ": " + n.sum()));
+        System.out.println("Pool: " + repositoryImpl.getPoolStats());
+    }
+
+    //-> Helper methods
+    private Customer randomCustomer(ThreadLocalRandom random) {
+        int recent = (int) Math.min(registered.get(), RECENT_CUSTOMERS);
+        int pick = random.nextInt(customerCount + recent);
+        int customerId = pick < customerCount ? pick + 1 : recentCustomers.get(pick - customerCount);
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId > 0 ? customerId : 1 + random.nextInt(customerCount));
+        return customer;
+    }
+
+    private Product randomProduct(ThreadLocalRandom random) {
+        return catalog[productIdsByRank[popularity.next(random) - 1]];
+    }
+
+    private Operation pickOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    //-> "register:2,addToCart:40,..." into running totals; operations left out get weight 0
+    private void parseMix(String mix) {
+        int[] weights = new int[operations.length];
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Operation operation = null;
+            for (Operation candidate : operations) {
+                if (name(candidate).equalsIgnoreCase(parts[0].trim())) {
+                    operation = candidate;
+                }
+            }
+            if (operation == null || parts.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry: " + entry);
+            }
+            weights[operation.ordinal()] = Integer.parseInt(parts[1].trim());
+        }
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulativeWeights[i] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("Mix has no operations: " + mix);
+        }
+    }
+
+    private static String name(Operation operation) {
+        switch (operation) {
+            case REGISTER: return "register";
+            case ADD_TO_CART: return "addToCart";
+            case VIEW_CART: return "viewCart";
+            case PLACE_ORDER: return "placeOrder";
+            default: return "history";
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0.0 : 100.0 * part / whole;
+    }
+}
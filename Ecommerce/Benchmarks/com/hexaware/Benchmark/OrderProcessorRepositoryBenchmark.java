@@ -0,0 +1,226 @@
+package com.hexaware.Benchmark;
+
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Product;
+import com.hexaware.Exception.CustomerNotFoundException;
+import com.hexaware.Exception.OrderNotFoundException;
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderProcessorRepositoryBenchmark {
+    //-> Plenty of stock so placeOrder never runs dry during a run
+    private static final int SEED_STOCK = 1_000_000_000;
+    private static final int SEED_CUSTOMERS = 100;
+
+    @Param({ "1000", "100000" })
+    public int catalogSize;
+
+    @Param({ "1", "10", "50" })
+    public int basketSize;
+
+    @Param({ "10", "500" })
+    public int historyLength;
+
+    private ConnectionPool pool;
+    private OrderProcessorRepositoryImpl repository;
+    private Customer historyCustomer;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        //-> Fresh in-memory database per trial, created from the real schema in SQL Queries
+        String url = "jdbc:h2:mem:bench" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        PoolConfig config = new PoolConfig(url, "sa", "");
+        config.setMaxSize(Runtime.getRuntime().availableProcessors() * 2);
+        pool = new ConnectionPool(config);
+
+        try (Connection connection = pool.getConnection()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            seedDatabase(connection);
+        }
+        repository = new OrderProcessorRepositoryImpl(pool);
+        historyCustomer = new Customer(1, "Customer 1", "customer1@example.com", "secret");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        pool.close();
+    }
+
+    private void seedDatabase(Connection connection) throws Exception {
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO customers (name, email, password) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= SEED_CUSTOMERS; i++) {
+                statement.setString(1, "Customer " + i);
+                statement.setString(2, "customer" + i + "@example.com");
+                statement.setString(3, "secret");
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO products (product_name, price, description, stockQuantity) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= catalogSize; i++) {
+                statement.setString(1, "Product " + i);
+                statement.setDouble(2, 10 + (i % 500));
+                statement.setString(3, "Benchmark product number " + i);
+                statement.setInt(4, SEED_STOCK);
+                statement.addBatch();
+                if (i % 1000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+
+        //-> Order history for customer 1, historyLength orders of basketSize lines each
+        try (PreparedStatement orderStatement = connection.prepareStatement(
+                "INSERT INTO orders (order_id, customer_id, order_date, total_price, shipping_address) VALUES (?, 1, CURRENT_DATE, ?, ?)");
+             PreparedStatement itemStatement = connection.prepareStatement(
+                "INSERT INTO order_items (order_id, product_id, quantity) VALUES (?, ?, ?)")) {
+            for (int orderId = 1; orderId <= historyLength; orderId++) {
+                orderStatement.setInt(1, orderId);
+                orderStatement.setDouble(2, 100.0);
+                orderStatement.setString(3, "1 Benchmark Street");
+                orderStatement.addBatch();
+                for (int line = 0; line < basketSize; line++) {
+                    itemStatement.setInt(1, orderId);
+                    itemStatement.setInt(2, 1 + (orderId * 31 + line) % catalogSize);
+                    itemStatement.setInt(3, 1);
+                    itemStatement.addBatch();
+                }
+            }
+            orderStatement.executeBatch();
+            itemStatement.executeBatch();
+        }
+
+        //-> Placed orders must not collide with the seeded IDs
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE orders ALTER COLUMN order_id RESTART WITH " + (historyLength + 1));
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    //-> Helper methods
+    private Product randomProduct() {
+        Product product = new Product();
+        product.setProductId(1 + ThreadLocalRandom.current().nextInt(catalogSize));
+        product.setPrice(10);
+        return product;
+    }
+
+    private Customer randomCustomer() {
+        Customer customer = new Customer();
+        customer.setCustomerId(2 + ThreadLocalRandom.current().nextInt(SEED_CUSTOMERS - 1));
+        return customer;
+    }
+
+    //-> Benchmarks, one per repository operation
+    @Benchmark
+    public boolean createProduct() {
+        int n = sequence.incrementAndGet();
+        return repository.createProduct(new Product("Bench product " + n, 19.99, "Created by benchmark", 100));
+    }
+
+    @Benchmark
+    public boolean createCustomer() {
+        int n = sequence.incrementAndGet();
+        return repository.createCustomer(new Customer("Bench " + n, "bench" + n + "-" + System.nanoTime() + "@example.com", "secret"));
+    }
+
+    @Benchmark
+    public boolean createAndDeleteProduct() throws ProductNotFoundException {
+        Product product = new Product("Short lived", 1.0, "Deleted right away", 1);
+        repository.createProduct(product);
+        return repository.deleteProduct(product.getProductId());
+    }
+
+    @Benchmark
+    public boolean createAndDeleteCustomer() throws CustomerNotFoundException {
+        int n = sequence.incrementAndGet();
+        Customer customer = new Customer("Short lived " + n, "short" + n + "-" + System.nanoTime() + "@example.com", "secret");
+        repository.createCustomer(customer);
+        return repository.deleteCustomer(customer.getCustomerId());
+    }
+
+    @Benchmark
+    public boolean addToCart() throws CustomerNotFoundException, ProductNotFoundException {
+        return repository.addToCart(randomCustomer(), randomProduct(), 1);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveFromCart() throws CustomerNotFoundException, ProductNotFoundException {
+        Customer customer = randomCustomer();
+        Product product = randomProduct();
+        repository.addToCart(customer, product, 1);
+        return repository.removeFromCart(customer, product);
+    }
+
+    @Benchmark
+    public List<Product> getAllFromCart() throws CustomerNotFoundException {
+        return repository.getAllFromCart(randomCustomer());
+    }
+
+    @Benchmark
+    public boolean placeOrder() throws CustomerNotFoundException, ProductNotFoundException {
+        List<Map<Product, Integer>> basket = new ArrayList<>(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            Map<Product, Integer> line = new HashMap<>();
+            line.put(randomProduct(), 1);
+            basket.add(line);
+        }
+        return repository.placeOrder(randomCustomer(), basket, "1 Benchmark Street");
+    }
+
+    @Benchmark
+    public boolean placeOrderLines() throws CustomerNotFoundException, ProductNotFoundException {
+        //-> Same basket as placeOrder through the primitive-array API, priced from the product cache
+        OrderLines lines = new OrderLines(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            lines.add(1 + ThreadLocalRandom.current().nextInt(catalogSize), 1);
+        }
+        return repository.placeOrder(randomCustomer().getCustomerId(), lines, "1 Benchmark Street");
+    }
+
+    @Benchmark
+    public void getOrdersByCustomer(Blackhole blackhole) throws CustomerNotFoundException, OrderNotFoundException {
+        blackhole.consume(repository.getOrdersByCustomer(historyCustomer.getCustomerId()));
+    }
+
+    @Benchmark
+    public List<OrderDetails> getOrderHistory() throws CustomerNotFoundException, OrderNotFoundException {
+        return repository.getOrderHistory(historyCustomer.getCustomerId());
+    }
+}
@@ -0,0 +1,37 @@
+package com.hexaware.Benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//-> Ranks 1..n drawn with probability proportional to 1 / rank^exponent, so a few products get most of the traffic.
+//-> The cumulative distribution is computed once and sampled by binary search; instances are immutable and thread safe.
+public class ZipfGenerator {
+    private final double[] cumulative;
+
+    public ZipfGenerator(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        //-> Rounding must not leave a gap above the last rank
+        cumulative[n - 1] = 1.0;
+    }
+
+    //-> A rank between 1 and n, 1 being the most popular
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return (index >= 0 ? index : -(index + 1)) + 1;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
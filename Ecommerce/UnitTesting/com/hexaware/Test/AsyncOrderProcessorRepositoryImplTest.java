@@ -0,0 +1,112 @@
+package com.hexaware.Test;
+
+import com.hexaware.Dao.AsyncOrderProcessorRepository;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.Page;
+import com.hexaware.Entity.Product;
+import com.hexaware.Exception.CustomerNotFoundException;
+import com.hexaware.Service.AsyncOrderProcessorRepositoryImpl;
+import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncOrderProcessorRepositoryImplTest {
+    private static final String URL = "jdbc:h2:mem:async_repository;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private AsyncOrderProcessorRepository repository;
+    private final Customer alice = new Customer(1, "Alice", "Alice@example.com", "Alice123");
+    private final Product phone = new Product(1, "Phone", 500.0, "Smartphone", 20);
+    private final Product charger = new Product(2, "Charger", 25.0, "USB-C charger", 50);
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'Alice', 'Alice@example.com', 'Alice123')");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 20)");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Charger', 25.0, 'USB-C charger', 50)");
+        }
+        repository = new AsyncOrderProcessorRepositoryImpl(new OrderProcessorRepositoryImpl(pool, new Properties()), 4);
+    }
+
+    @Test
+    void testCreateProductsImportsEveryRow() throws Exception {
+        List<Product> products = List.of(new Product("Tablet", 300.0, "10 inch", 5), new Product("Case", 15.0, "Tablet case", 40),
+                new Product("Stylus", 30.0, "Pen", 25));
+
+        assertEquals(3L, (long) repository.createProducts(products.iterator(), 2, 2, null).get(5, TimeUnit.SECONDS));
+        assertEquals(5, queryInt("SELECT COUNT(*) FROM products"));
+    }
+
+    @Test
+    void testCartPagingAndStreaming() throws Exception {
+        assertTrue(repository.addToCart(alice, phone, 1).get(5, TimeUnit.SECONDS));
+        assertTrue(repository.addToCart(alice, charger, 2).get(5, TimeUnit.SECONDS));
+
+        Page<Product> first = repository.getCartPage(alice, null, 1).get(5, TimeUnit.SECONDS);
+        assertEquals(1, first.getItems().size());
+        assertTrue(first.hasNext());
+        Page<Product> second = repository.getCartPage(alice, first.getNextCursor(), 1).get(5, TimeUnit.SECONDS);
+        assertEquals(2, second.getItems().get(0).getProductId());
+        assertFalse(second.hasNext());
+
+        List<Integer> streamed = Collections.synchronizedList(new ArrayList<>());
+        repository.forEachInCart(alice, product -> streamed.add(product.getProductId())).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2), streamed, "The future should complete after the last row.");
+    }
+
+    @Test
+    void testPlaceOrderWithQuantities() throws Exception {
+        assertTrue(repository.placeOrder(1, new int[] { 1, 2 }, new int[] { 2, 3 }, "123 Main Street").get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, queryInt("SELECT COUNT(*) FROM orders"));
+        assertEquals(18, queryInt("SELECT stockQuantity FROM products WHERE product_id = 1"));
+        assertEquals(47, queryInt("SELECT stockQuantity FROM products WHERE product_id = 2"));
+    }
+
+    @Test
+    void testUnknownCustomerFailsTheFuture() {
+        Customer stranger = new Customer(99, "Nobody", "nobody@example.com", "pw");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> repository.getCartPage(stranger, null, 10).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof CustomerNotFoundException, "The checked exception should arrive as the cause.");
+        e = assertThrows(ExecutionException.class, () -> repository.forEachInCart(stranger, product -> { }).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof CustomerNotFoundException);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        repository.close();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(sql)) {
+            assertTrue(resultSet.next());
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.hexaware.Test;
+
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.Page;
+import com.hexaware.Entity.Product;
+import com.hexaware.Exception.CustomerNotFoundException;
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartPagingTest {
+    private static final String URL = "jdbc:h2:mem:cart_paging;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private OrderProcessorRepository repository;
+    private final Customer alice = new Customer(1, "Alice", "Alice@example.com", "Alice123");
+    private final Customer bob = new Customer(2, "Bob", "Bob@example.com", "Bob456");
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'Alice', 'Alice@example.com', 'Alice123')");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (2, 'Bob', 'Bob@example.com', 'Bob456')");
+            for (int productId = 1; productId <= 5; productId++) {
+                stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (" +
+                        productId + ", 'Product " + productId + "', 10.0, 'Description', 100)");
+            }
+        }
+        repository = new OrderProcessorRepositoryImpl(pool, new Properties());
+    }
+
+    //-> Alice gets products 1..count, with one of Bob's rows between each of hers so the customer filter is exercised
+    private void fillCart(int count) throws CustomerNotFoundException, ProductNotFoundException {
+        for (int productId = 1; productId <= count; productId++) {
+            assertTrue(repository.addToCart(alice, product(productId), 1));
+            assertTrue(repository.addToCart(bob, product(productId), 1));
+        }
+    }
+
+    @Test
+    void testPagesEndingOnExactBoundary() throws CustomerNotFoundException, ProductNotFoundException {
+        fillCart(4);
+
+        Page<Product> first = repository.getCartPage(alice, null, 2);
+        assertEquals(List.of(1, 2), productIds(first));
+        assertTrue(first.hasNext());
+
+        Page<Product> second = repository.getCartPage(alice, first.getNextCursor(), 2);
+        assertEquals(List.of(3, 4), productIds(second));
+        assertFalse(second.hasNext(), "A full last page should not point at an empty one.");
+    }
+
+    @Test
+    void testPageLargerThanCart() throws CustomerNotFoundException, ProductNotFoundException {
+        fillCart(3);
+
+        Page<Product> page = repository.getCartPage(alice, null, 10);
+        assertEquals(List.of(1, 2, 3), productIds(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testEmptyCartGivesEmptyPage() throws CustomerNotFoundException {
+        Page<Product> page = repository.getCartPage(alice, null, 2);
+
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testRowsDeletedBetweenPagesAreSkipped() throws CustomerNotFoundException, ProductNotFoundException {
+        fillCart(5);
+        Page<Product> first = repository.getCartPage(alice, null, 2);
+        assertEquals(List.of(1, 2), productIds(first));
+
+        //-> Both the row the cursor points at and the first row of the next page go away
+        assertTrue(repository.removeFromCart(alice, product(2)));
+        assertTrue(repository.removeFromCart(alice, product(3)));
+
+        Page<Product> second = repository.getCartPage(alice, first.getNextCursor(), 2);
+        assertEquals(List.of(4, 5), productIds(second), "Paging should resume after the cursor without repeating rows.");
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> repository.getCartPage(alice, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> repository.getCartPage(alice, "not-a-cursor", 2));
+    }
+
+    @Test
+    void testForEachInCartStreamsInCartOrder() throws CustomerNotFoundException, ProductNotFoundException {
+        fillCart(4);
+        assertTrue(repository.removeFromCart(alice, product(2)));
+
+        List<Integer> streamed = new ArrayList<>();
+        repository.forEachInCart(alice, product -> streamed.add(product.getProductId()));
+        assertEquals(List.of(1, 3, 4), streamed, "Only Alice's remaining rows should be streamed, in cart order.");
+
+        streamed.clear();
+        repository.forEachInCart(bob, product -> streamed.add(product.getProductId()));
+        assertEquals(List.of(1, 2, 3, 4), streamed);
+    }
+
+    @Test
+    void testForEachInEmptyCartCallsNothing() throws CustomerNotFoundException {
+        List<Product> streamed = new ArrayList<>();
+        repository.forEachInCart(alice, streamed::add);
+
+        assertTrue(streamed.isEmpty());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    private static Product product(int productId) {
+        return new Product(productId, "Product " + productId, 10.0, "Description", 100);
+    }
+
+    private static List<Integer> productIds(Page<Product> page) {
+        List<Integer> ids = new ArrayList<>();
+        for (Product product : page.getItems()) {
+            ids.add(product.getProductId());
+        }
+        return ids;
+    }
+}
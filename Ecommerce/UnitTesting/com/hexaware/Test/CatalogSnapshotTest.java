@@ -0,0 +1,117 @@
+package com.hexaware.Test;
+
+import com.hexaware.Service.CatalogSnapshot;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+    private static final String URL = "jdbc:h2:mem:catalog_snapshot;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+        }
+        execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 10)");
+        execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Case', 20.0, NULL, 5)");
+        directory = Files.createTempDirectory("catalog-snapshot");
+        file = directory.resolve("catalog.snapshot");
+    }
+
+    @Test
+    void testEachRefreshWritesANewGeneration() throws SQLException, IOException {
+        try (CatalogSnapshot snapshot = new CatalogSnapshot(pool, file, 100)) {
+            assertFalse(snapshot.open(), "There is nothing to open yet.");
+            snapshot.refresh(null);
+            assertTrue(Files.exists(directory.resolve("catalog.snapshot.1")));
+
+            execute("DELETE FROM products WHERE product_id = 2");
+            execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (3, 'Charger', 30.0, 'USB-C', 7)");
+            List<Integer> added = new ArrayList<>();
+            List<Integer> removed = new ArrayList<>();
+            snapshot.refresh(new CatalogSnapshot.ChangeListener() {
+                @Override
+                public void added(int productId, String name, String description) {
+                    added.add(productId);
+                }
+
+                @Override
+                public void removed(int productId, String name, String description) {
+                    removed.add(productId);
+                }
+            });
+
+            assertEquals(List.of(3), added);
+            assertEquals(List.of(2), removed);
+            assertTrue(Files.exists(directory.resolve("catalog.snapshot.2")));
+            assertEquals("Charger", snapshot.get(3).getName());
+            assertNull(snapshot.get(2));
+        }
+        assertEquals(List.of("catalog.snapshot.2"), files(), "The older generation should be removed.");
+    }
+
+    @Test
+    void testOpenSkipsUnreadableNewerGeneration() throws SQLException, IOException {
+        try (CatalogSnapshot snapshot = new CatalogSnapshot(pool, file, 100)) {
+            snapshot.refresh(null);
+        }
+        //-> A crash left a truncated newer file behind
+        Files.write(directory.resolve("catalog.snapshot.2"), new byte[] { 1, 2, 3 });
+
+        try (CatalogSnapshot snapshot = new CatalogSnapshot(pool, file, 100)) {
+            assertTrue(snapshot.open(), "The older readable generation should be used.");
+            assertEquals(2, snapshot.size());
+            assertEquals(500.0, snapshot.get(1).getPrice(), 0.001);
+            assertNull(snapshot.get(2).getDescription());
+
+            snapshot.refresh(null);
+            assertTrue(Files.exists(directory.resolve("catalog.snapshot.3")), "The unreadable generation must not be reused.");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException, IOException {
+        execute("DROP ALL OBJECTS");
+        pool.close();
+        for (String name : files()) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private List<String> files() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> names.add(path.getFileName().toString()));
+        }
+        names.sort(null);
+        return names;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.hexaware.Test;
+
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    private static final String H2_URL = "jdbc:h2:mem:connection_pool;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String FLAKY_URL = "jdbc:flaky:" + H2_URL;
+
+    //-> Statements from connections opened while the link is down fail the way a dropped network link does
+    private static volatile boolean linkDown;
+    private static FlakyDriver driver;
+
+    private ConnectionPool pool;
+
+    @BeforeAll
+    static void registerDriver() throws SQLException {
+        driver = new FlakyDriver();
+        DriverManager.registerDriver(driver);
+    }
+
+    @AfterAll
+    static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(driver);
+    }
+
+    @BeforeEach
+    void setUp() {
+        linkDown = false;
+        PoolConfig config = new PoolConfig(FLAKY_URL, "sa", "");
+        config.setMinSize(1);
+        config.setMaxSize(1);
+        pool = new ConnectionPool(config);
+    }
+
+    @Test
+    void testLinkFailureDuringQueryDiscardsConnection() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            linkDown = true;
+            assertThrows(SQLException.class, statement::executeQuery, "The dropped link should surface to the caller.");
+        }
+        linkDown = false;
+
+        //-> Returned within the validation window, so only the broken flag keeps it out of the pool
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+            assertTrue(resultSet.next(), "The next borrower should get a working connection.");
+        }
+        assertEquals(1, pool.getStats().getConnectionsDestroyed(), "The broken connection should be destroyed.");
+        assertEquals(2, pool.getStats().getConnectionsCreated(), "A fresh connection should replace it.");
+    }
+
+    @Test
+    void testOrdinarySqlErrorKeepsConnection() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeQuery("SELECT * FROM no_such_table"));
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(0, pool.getStats().getConnectionsDestroyed(), "A failed query alone should not cost the connection.");
+    }
+
+    @Test
+    void testCachedStatementSettingsAreReset() throws SQLException {
+        int defaultFetchSize;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            defaultFetchSize = statement.getFetchSize();
+            statement.setFetchSize(defaultFetchSize + 7);
+            statement.setMaxRows(3);
+            statement.setQueryTimeout(5);
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            assertEquals(defaultFetchSize, statement.getFetchSize(), "Fetch size should not carry over to the next borrower.");
+            assertEquals(0, statement.getMaxRows(), "Max rows should not carry over to the next borrower.");
+            assertEquals(0, statement.getQueryTimeout(), "Query timeout should not carry over to the next borrower.");
+        }
+        assertEquals(1, pool.getStats().getStatementCacheHits(), "The statement should still be served from the cache.");
+    }
+
+    @Test
+    void testDroppedStatementDoesNotLeaveQueryTimeout() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            //-> Marks the statement as not worth resetting, so it is dropped from the cache
+            statement.setMaxFieldSize(100);
+            statement.setQueryTimeout(5);
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            assertEquals(0, statement.getQueryTimeout(), "A dropped statement's timeout should not carry over either.");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    //-> Hands out H2 connections whose statements throw SQLState 08S01 while linkDown is set
+    public static class FlakyDriver implements Driver {
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            Connection physical = DriverManager.getConnection(url.substring("jdbc:flaky:".length()), info);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        Object result = invoke(physical, method, args);
+                        if (result instanceof Statement) {
+                            return flaky(method.getReturnType(), (Statement) result);
+                        }
+                        return result;
+                    });
+        }
+
+        private static Object flaky(Class<?> type, Statement statement) {
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                if (linkDown && method.getName().startsWith("execute")) {
+                    throw new SQLException("Communications link failure", "08S01");
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:flaky:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
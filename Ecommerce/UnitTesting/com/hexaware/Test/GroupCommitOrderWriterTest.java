@@ -0,0 +1,100 @@
+package com.hexaware.Test;
+
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Service.GroupCommitOrderWriter;
+import com.hexaware.Service.OrderWriter;
+import com.hexaware.Service.PendingOrder;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitOrderWriterTest {
+    private static final String URL = "jdbc:h2:mem:group_commit;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private GroupCommitOrderWriter writer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'Alice', 'Alice@example.com', 'Alice123')");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 10)");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Case', 20.0, 'Phone case', 1)");
+        }
+        //-> A long delay, so orders submitted together end up in one transaction
+        writer = new GroupCommitOrderWriter(pool, new OrderWriter(pool, null, false), 10, 500);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @Test
+    void testRejectedOrderIsRolledBackAlone() throws Exception {
+        Future<?> first = submit(order(1, new int[] { 1 }, new int[] { 2 }));
+        //-> Takes a phone before the case line fails, the savepoint must undo that decrement too
+        Future<?> shortOnStock = submit(order(2, new int[] { 1, 2 }, new int[] { 1, 5 }));
+        Future<?> unknownProduct = submit(order(3, new int[] { 99 }, new int[] { 1 }));
+        Future<?> last = submit(order(4, new int[] { 1, 2 }, new int[] { 3, 1 }));
+
+        first.get(10, TimeUnit.SECONDS);
+        last.get(10, TimeUnit.SECONDS);
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> shortOnStock.get(10, TimeUnit.SECONDS));
+        assertTrue(rejected.getCause() instanceof IllegalArgumentException, "Insufficient stock should reach only its caller.");
+        ExecutionException missing = assertThrows(ExecutionException.class, () -> unknownProduct.get(10, TimeUnit.SECONDS));
+        assertTrue(missing.getCause() instanceof ProductNotFoundException, "An unknown product should reach only its caller.");
+
+        assertEquals(5, queryInt("SELECT stockQuantity FROM products WHERE product_id = 1"), "Only the written orders take stock.");
+        assertEquals(0, queryInt("SELECT stockQuantity FROM products WHERE product_id = 2"));
+        assertEquals(2, queryInt("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM orders WHERE order_id IN (2, 3)"), "Rejected orders leave no rows.");
+        assertEquals(3, queryInt("SELECT COUNT(*) FROM order_items"));
+    }
+
+    private Future<?> submit(PendingOrder order) {
+        return callers.submit(() -> {
+            writer.write(order);
+            return null;
+        });
+    }
+
+    private static PendingOrder order(int orderId, int[] productIds, int[] quantities) {
+        String[] names = new String[productIds.length];
+        double[] prices = new double[productIds.length];
+        Arrays.fill(prices, 1.0);
+        return new PendingOrder(orderId, 1, productIds, quantities, names, prices, productIds.length, "123 Main Street");
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        callers.shutdownNow();
+        writer.close();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.hexaware.Test;
+
+import com.hexaware.Service.InventoryLedger;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryLedgerTest {
+    private static final String URL = "jdbc:h2:mem:inventory_ledger;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private InventoryLedger ledger;
+    private final Set<Integer> reconciled = Collections.synchronizedSet(new HashSet<>());
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 10)");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Case', 20.0, 'Phone case', 5)");
+        }
+        //-> Batches of two, so reconciling three rows takes two passes
+        ledger = new InventoryLedger(pool, 2, reconciled::add);
+    }
+
+    @Test
+    void testReserveIsAllOrNothing() throws SQLException {
+        assertEquals(1, ledger.reserve(new int[] { 1, 2 }, new int[] { 3, 6 }), "The second line should be short on stock.");
+        assertEquals(10, ledger.getAvailable(1), "The first line should be given back.");
+        assertEquals(5, ledger.getAvailable(2));
+    }
+
+    @Test
+    void testReconcileFoldsLedgerIntoProducts() throws SQLException {
+        checkout(new int[] { 1, 2 }, new int[] { 3, 2 });
+        checkout(new int[] { 1 }, new int[] { 1 });
+
+        assertEquals(2, ledger.reconcile(), "The first pass should stop at the batch size.");
+        assertEquals(1, ledger.reconcile());
+        assertEquals(0, ledger.reconcile(), "Nothing should be left in the ledger.");
+
+        assertEquals(6, queryInt("SELECT stockQuantity FROM products WHERE product_id = 1"));
+        assertEquals(3, queryInt("SELECT stockQuantity FROM products WHERE product_id = 2"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM stock_ledger"));
+        assertEquals(6, ledger.getAvailable(1), "Reconciling must not change what is available.");
+        assertTrue(reconciled.containsAll(List.of(1, 2)), "Reconciled products should be reported.");
+    }
+
+    @Test
+    void testCountersStartFromStockMinusPendingLedgerRows() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO stock_ledger (product_id, quantity) VALUES (1, 4)");
+        }
+
+        assertEquals(0, ledger.reserve(new int[] { 1 }, new int[] { 7 }), "Only 6 units should be available.");
+        assertEquals(-1, ledger.reserve(new int[] { 1 }, new int[] { 6 }));
+        assertEquals(0, ledger.getAvailable(1));
+    }
+
+    //-> Reserve in memory, then record in a transaction, the way placeOrder does
+    private void checkout(int[] productIds, int[] quantities) throws SQLException {
+        assertEquals(-1, ledger.reserve(productIds, quantities));
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            ledger.record(connection, productIds, quantities);
+            connection.commit();
+        }
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+}
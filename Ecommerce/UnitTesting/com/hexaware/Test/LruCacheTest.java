@@ -0,0 +1,80 @@
+package com.hexaware.Test;
+
+import com.hexaware.Service.LruCache;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//-> Small Integer keys hash to themselves, so keys 16 apart share a segment
+public class LruCacheTest {
+    private LruCache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        //-> 16 segments of 2 entries each, no expiry
+        cache = new LruCache<>(32, 0);
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedFirst() {
+        cache.put(0, "zero");
+        cache.put(16, "sixteen");
+        assertEquals("zero", cache.get(0), "Reading the older entry should make it the most recently used.");
+
+        cache.put(32, "thirty-two");
+        assertNull(cache.get(16), "The least recently used entry should be evicted.");
+        assertEquals("zero", cache.get(0));
+        assertEquals("thirty-two", cache.get(32));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void testSizeStaysWithinCapacity() {
+        for (int key = 0; key < 1000; key++) {
+            cache.put(key, "value" + key);
+        }
+
+        assertEquals(32, cache.size(), "Every segment should be full but not over its share.");
+        assertEquals(968, cache.getStats().getEvictions());
+        assertEquals("value999", cache.get(999), "The latest entry should still be cached.");
+        assertNull(cache.get(0));
+    }
+
+    @Test
+    void testLoadStartedBeforeInvalidationIsDropped() {
+        cache.put(1, "old");
+        long stamp = cache.stamp(1);
+
+        //-> An update lands while the reader is still loading the old row
+        cache.invalidate(1);
+        cache.put(1, "stale", stamp);
+        assertNull(cache.get(1), "A load that raced with an invalidation should not be cached.");
+
+        cache.put(1, "fresh", cache.stamp(1));
+        assertEquals("fresh", cache.get(1), "A load started after the invalidation should be cached.");
+    }
+
+    @Test
+    void testInvalidateAllRejectsEarlierStamps() {
+        long first = cache.stamp(1);
+        long second = cache.stamp(2);
+        cache.put(1, "one", first);
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        cache.put(2, "two", second);
+        assertNull(cache.get(2), "Stamps taken before invalidateAll should be rejected.");
+    }
+
+    @Test
+    void testStatsCountHitsAndMisses() {
+        cache.put(1, "one");
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getSize());
+    }
+}
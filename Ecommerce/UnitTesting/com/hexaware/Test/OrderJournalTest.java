@@ -0,0 +1,215 @@
+package com.hexaware.Test;
+
+import com.hexaware.Service.InventoryLedger;
+import com.hexaware.Service.OrderJournal;
+import com.hexaware.Service.OrderWriter;
+import com.hexaware.Service.PendingOrder;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderJournalTest {
+    private static final String URL = "jdbc:h2:mem:order_journal;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final int SEGMENT_BYTES = 4096;
+
+    private ConnectionPool pool;
+    private Path directory;
+    private final List<OrderJournal> journals = new ArrayList<>();
+    private final List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+    //-> The journal's database refuses connections while this is set, the way it does during a failover
+    private volatile boolean databaseDown;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+        }
+        execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'John', 'john@example.com', 'pw')");
+        execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 10)");
+        execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Case', 20.0, 'Phone case', 5)");
+        directory = Files.createTempDirectory("order-journal");
+    }
+
+    @Test
+    void testUnappliedOrdersAreReplayedAfterCrash() throws Exception {
+        InventoryLedger ledger = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal journal = journal(ledger);
+        place(journal, ledger, 1, 1, 3);
+        place(journal, ledger, 2, 2, 1);
+        //-> Closed before the applier ever ran, as if the process died right after acknowledging
+        journal.close();
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM orders"));
+
+        InventoryLedger restarted = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal recovered = journal(restarted);
+        assertEquals(7, restarted.getAvailable(1), "Open should hold the stock of unapplied orders.");
+        recovered.start();
+        awaitApplied(recovered, 2);
+
+        assertEquals(2, queryInt("SELECT COUNT(*) FROM orders"));
+        assertEquals(List.of(1, 2), applied, "Orders should be applied in journal order.");
+        assertEquals(7, restarted.getAvailable(1));
+        assertEquals(4, restarted.getAvailable(2));
+    }
+
+    @Test
+    void testReplaySkipsOrdersAlreadyApplied() throws Exception {
+        execute("INSERT INTO cart (customer_id, product_id, quantity) VALUES (1, 1, 3)");
+        execute("INSERT INTO cart (customer_id, product_id, quantity) VALUES (1, 2, 1)");
+        InventoryLedger ledger = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal journal = journal(ledger);
+        journal.start();
+        place(journal, ledger, 1, 1, 3);
+        awaitApplied(journal, 1);
+        journal.close();
+        //-> The checkpoint lags behind what the database has
+        Files.writeString(directory.resolve("checkpoint"), "0 0" + System.lineSeparator(), StandardCharsets.UTF_8);
+
+        InventoryLedger restarted = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal recovered = journal(restarted);
+        recovered.start();
+        awaitApplied(recovered, 1);
+
+        assertEquals(1, queryInt("SELECT COUNT(*) FROM orders"), "The order must not be written twice.");
+        assertEquals(1, queryInt("SELECT COUNT(*) FROM stock_ledger"));
+        assertEquals(7, restarted.getAvailable(1), "The second hold should be given back.");
+        assertEquals(2, queryInt("SELECT product_id FROM cart WHERE customer_id = 1"), "Only the ordered product should leave the cart.");
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws Exception {
+        InventoryLedger ledger = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal journal = journal(ledger);
+        place(journal, ledger, 1, 1, 1);
+        journal.close();
+
+        //-> A record whose length reached the disk but whose payload did not
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("%020d.journal", 0)),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+            int tail = 8 + buffer.getInt(0);
+            buffer.putInt(tail, 40);
+            buffer.putInt(tail + 4, 12345);
+            buffer.force();
+        }
+
+        InventoryLedger restarted = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal recovered = journal(restarted);
+        recovered.start();
+        place(recovered, restarted, 2, 1, 2);
+        awaitApplied(recovered, 2);
+
+        assertEquals(List.of(1, 2), applied);
+        assertEquals(7, restarted.getAvailable(1));
+    }
+
+    @Test
+    void testApplyIsRetriedAfterDatabaseFailure() throws Exception {
+        InventoryLedger ledger = new InventoryLedger(pool, 100, productId -> { });
+        OrderJournal journal = journal(ledger);
+        journal.start();
+        databaseDown = true;
+        place(journal, ledger, 1, 1, 2);
+
+        Thread.sleep(200);
+        assertEquals(0, journal.getAppliedCount(), "Nothing can be applied while the database is down.");
+        assertTrue(journal.getPendingBytes() > 0);
+
+        databaseDown = false;
+        awaitApplied(journal, 1);
+        assertEquals(1, queryInt("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, journal.getRejectedCount(), "A connection failure is not a reason to reject the order.");
+        assertEquals(8, ledger.getAvailable(1));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException, IOException {
+        for (OrderJournal journal : journals) {
+            journal.close();
+        }
+        execute("DROP ALL OBJECTS");
+        pool.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    //-> Opens a journal on the shared directory whose database connections fail while databaseDown is set
+    private OrderJournal journal(InventoryLedger ledger) throws IOException, SQLException {
+        DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    if (databaseDown && method.getName().equals("getConnection")) {
+                        throw new SQLException("Connection refused", "08001");
+                    }
+                    try {
+                        return method.invoke(pool, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        OrderJournal journal = new OrderJournal(dataSource, new OrderWriter(dataSource, ledger, false, true), ledger,
+                order -> applied.add(order.getOrderId()), directory, SEGMENT_BYTES, 1 << 20, 1000);
+        journals.add(journal);
+        journal.open();
+        return journal;
+    }
+
+    //-> Reserves, then journals, the way placeOrder does
+    private void place(OrderJournal journal, InventoryLedger ledger, int orderId, int productId, int quantity) throws SQLException, IOException {
+        int[] productIds = { productId };
+        int[] quantities = { quantity };
+        assertEquals(-1, ledger.reserve(productIds, quantities));
+        journal.append(new PendingOrder(orderId, 1, productIds, quantities, new String[] { "Product " + productId },
+                new double[] { 10.0 }, 10.0 * quantity, "Street 1"));
+    }
+
+    private void awaitApplied(OrderJournal journal, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (journal.getAppliedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, journal.getAppliedCount(), "The applier should catch up.");
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet resultSet = stmt.executeQuery(sql)) {
+            assertTrue(resultSet.next());
+            return resultSet.getInt(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
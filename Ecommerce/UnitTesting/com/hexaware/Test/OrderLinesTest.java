@@ -0,0 +1,85 @@
+package com.hexaware.Test;
+
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Exception.CustomerNotFoundException;
+import com.hexaware.Exception.OrderNotFoundException;
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderLinesTest {
+    private static final String URL = "jdbc:h2:mem:order_lines;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+    private OrderProcessorRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'Alice', 'Alice@example.com', 'Alice123')");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 20)");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Case', 20.0, 'Phone case', 20)");
+        }
+        Properties properties = new Properties();
+        properties.setProperty("orders.historyReadModel.enabled", "true");
+        repository = new OrderProcessorRepositoryImpl(pool, properties);
+    }
+
+    @Test
+    void testLinesByIdArePricedFromCatalog() throws CustomerNotFoundException, ProductNotFoundException, OrderNotFoundException {
+        OrderLines lines = new OrderLines().add(1, 1).add(2, 3);
+
+        assertTrue(repository.placeOrder(1, lines, "123 Main Street"), "Order should be placed successfully.");
+        List<OrderDetails> history = repository.getOrderHistory(1);
+        assertEquals(1, history.size());
+        assertEquals(560.0, history.get(0).getTotalPrice(), 0.001, "Total should use the catalog prices.");
+    }
+
+    @Test
+    void testArrayOverloadAndReusedBuffer() throws CustomerNotFoundException, ProductNotFoundException, OrderNotFoundException {
+        assertTrue(repository.placeOrder(1, new int[] { 2 }, new int[] { 2 }, "123 Main Street"));
+
+        OrderLines lines = new OrderLines(1);
+        lines.add(1, 1, "Phone", 450.0);
+        assertTrue(repository.placeOrder(1, lines, "123 Main Street"));
+        lines.clear();
+        assertTrue(lines.isEmpty(), "A cleared buffer should be ready for the next basket.");
+
+        double total = 0;
+        for (OrderDetails order : repository.getOrderHistory(1)) {
+            total += order.getTotalPrice();
+        }
+        assertEquals(490.0, total, 0.001, "A priced line should keep the price it was given.");
+    }
+
+    @Test
+    void testUnknownProductIdThrows() {
+        assertThrows(ProductNotFoundException.class, () -> repository.placeOrder(1, new OrderLines().add(999, 1), "123 Main Street"));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.hexaware.Test;
+
+import com.hexaware.Service.ProductSearchIndex;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(64);
+    }
+
+    @Test
+    void testLastWordMatchesAsPrefix() {
+        index.add(1, "Phone Case", "Silicone");
+        index.add(2, "Phone Charger", "USB-C");
+        index.add(3, "Headphones", "Wireless");
+
+        assertArrayEquals(new int[] { 1, 2 }, sorted(index.search("pho", 10)), "A prefix should match from the start of a word.");
+        assertArrayEquals(new int[] { 2 }, index.search("phone cha", 10));
+        assertEquals(0, index.search("cha phone", 10).length, "Only the last word is matched as a prefix.");
+    }
+
+    @Test
+    void testNameMatchRanksAboveDescriptionMatch() {
+        index.add(1, "Cable", "Charging cable for any phone");
+        index.add(2, "Phone", "Smartphone");
+
+        assertArrayEquals(new int[] { 2, 1 }, index.search("phone", 10));
+    }
+
+    @Test
+    void testExactMatchRanksAbovePrefixMatch() {
+        index.add(1, "Phones", "Bundle");
+        index.add(2, "Phone", "Single");
+
+        assertArrayEquals(new int[] { 2, 1 }, index.search("phone", 10));
+        assertArrayEquals(new int[] { 2 }, index.search("phone", 1), "The limit should keep the best match.");
+    }
+
+    @Test
+    void testEveryWordMustMatch() {
+        index.add(1, "Red Phone", null);
+        index.add(2, "Blue Phone", null);
+
+        assertArrayEquals(new int[] { 2 }, index.search("blue phone", 10));
+        assertEquals(0, index.search("green phone", 10).length);
+    }
+
+    @Test
+    void testOutOfOrderAddsKeepPostingsSorted() {
+        index.add(5, "Red Phone", null);
+        index.add(3, "Red Phone", null);
+        index.add(9, "Red Phone", null);
+        index.add(4, "Blue Phone", null);
+        index.add(1, "Red Lamp", null);
+
+        //-> Two words, so the second clause is probed by binary search on the postings
+        assertArrayEquals(new int[] { 3, 5, 9 }, sorted(index.search("phone red", 10)));
+        assertArrayEquals(new int[] { 1, 3, 5, 9 }, sorted(index.search("red", 10)));
+    }
+
+    @Test
+    void testAddingAgainDoesNotCountTwice() {
+        index.add(1, "Phone", "Smart");
+        index.add(1, "Phone", "Smart");
+        index.add(2, "Tablet", null);
+
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[] { 1 }, index.search("phone", 10));
+    }
+
+    @Test
+    void testUpdateReplacesTerms() {
+        index.add(1, "Phone", "Smart");
+        index.add(2, "Phone", "Basic");
+
+        //-> A rename is a remove with the old text and an add with the new one
+        index.remove(1, "Phone", "Smart");
+        index.add(1, "Tablet", "Smart");
+
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[] { 2 }, index.search("phone", 10));
+        assertArrayEquals(new int[] { 1 }, index.search("tablet", 10));
+        assertArrayEquals(new int[] { 1 }, index.search("smart", 10));
+    }
+
+    @Test
+    void testRemoveDropsEmptyTerms() {
+        index.add(1, "Phone", "Smart");
+        index.add(2, "Phone", "Basic");
+        assertEquals(3, index.termCount());
+
+        index.remove(1, "Phone", "Smart");
+        assertEquals(1, index.size());
+        assertEquals(2, index.termCount(), "A term without products should be dropped.");
+        assertEquals(0, index.search("smart", 10).length);
+        assertArrayEquals(new int[] { 2 }, index.search("phone", 10));
+
+        index.remove(1, "Phone", "Smart");
+        assertEquals(1, index.size(), "Removing twice should not count twice.");
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,157 @@
+package com.hexaware.Test;
+
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Service.ReadRouter;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.Product;
+import com.hexaware.Exception.CustomerNotFoundException;
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//-> Two H2 databases stand in for a primary and a replica that has not caught up yet
+public class ReadRoutingTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool primary;
+    private ConnectionPool replica;
+    private final Customer alice = new Customer(1, "Alice", "Alice@example.com", "Alice123");
+    private final Customer bob = new Customer(2, "Bob", "Bob@example.com", "Bob456");
+    private final Product phone = new Product(1, "Phone", 500.0, "Smartphone", 20);
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        initializeDatabase(PRIMARY_URL);
+        initializeDatabase(REPLICA_URL);
+        primary = new ConnectionPool(new PoolConfig(PRIMARY_URL, "sa", ""));
+        replica = new ConnectionPool(new PoolConfig(REPLICA_URL, "sa", ""));
+    }
+
+    private void initializeDatabase(String url) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+
+            //-> Same starting data on both sides, as if replication had caught up until now
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'Alice', 'Alice@example.com', 'Alice123')");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (2, 'Bob', 'Bob@example.com', 'Bob456')");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 20)");
+        }
+    }
+
+    private OrderProcessorRepository repository(long stickinessMillis) {
+        Properties properties = new Properties();
+        properties.setProperty("db.replica.stickinessMillis", String.valueOf(stickinessMillis));
+        return new OrderProcessorRepositoryImpl(primary, List.of(replica), properties);
+    }
+
+    @Test
+    void testReadsGoToReplicaWithoutStickiness() throws CustomerNotFoundException, ProductNotFoundException {
+        OrderProcessorRepository repository = repository(0);
+
+        assertTrue(repository.addToCart(alice, phone, 2), "Write should succeed on the primary.");
+        assertTrue(repository.getAllFromCart(alice).isEmpty(), "Cart read should be served by the lagging replica.");
+    }
+
+    @Test
+    void testCustomerReadsOwnWrites() throws CustomerNotFoundException, ProductNotFoundException {
+        OrderProcessorRepository repository = repository(60000);
+
+        assertTrue(repository.addToCart(alice, phone, 2), "Write should succeed on the primary.");
+        assertEquals(1, repository.getAllFromCart(alice).size(), "Customer should see their own write right away.");
+    }
+
+    @Test
+    void testOtherCustomersStillReadReplica() throws SQLException, CustomerNotFoundException, ProductNotFoundException {
+        OrderProcessorRepository repository = repository(60000);
+        assertTrue(repository.addToCart(alice, phone, 2), "Write should succeed on the primary.");
+
+        //-> Bob's cart exists only on the primary and Bob has not written through this repository
+        try (Connection connection = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO cart (customer_id, product_id, quantity) VALUES (2, 1, 1)");
+        }
+        assertTrue(repository.getAllFromCart(bob).isEmpty(), "Only the writing customer should be pinned to the primary.");
+    }
+
+    @Test
+    void testWithoutReplicasReadsGoToPrimary() throws CustomerNotFoundException, ProductNotFoundException {
+        OrderProcessorRepository repository = new OrderProcessorRepositoryImpl(primary, new Properties());
+
+        assertTrue(repository.addToCart(alice, phone, 2), "Write should succeed on the primary.");
+        assertEquals(1, repository.getAllFromCart(alice).size(), "Without replicas every read should use the primary.");
+    }
+
+    @Test
+    void testProductWritesDoNotWaitForReplica() throws SQLException, CustomerNotFoundException, ProductNotFoundException {
+        OrderProcessorRepository repository = repository(0);
+        Product tablet = new Product(2, "Tablet", 300.0, "10 inch tablet", 5);
+
+        //-> Created on the primary only, the replica has not caught up
+        try (Connection connection = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Tablet', 300.0, '10 inch tablet', 5)");
+        }
+
+        assertTrue(repository.addToCart(alice, tablet, 1), "Adding the new product should succeed.");
+        assertTrue(repository.removeFromCart(alice, tablet), "Removing the new product should not depend on the replica.");
+        assertTrue(repository.placeOrder(1, new int[] { 2 }, new int[] { 1 }, "123 Main Street"),
+                "Pricing the new product should not depend on the replica.");
+        assertTrue(repository.deleteProduct(2), "Deleting the new product should not depend on the replica.");
+    }
+
+    @Test
+    void testCustomerWritesDoNotWaitForReplica() throws SQLException, CustomerNotFoundException, ProductNotFoundException {
+        OrderProcessorRepository repository = repository(0);
+        Customer carol = new Customer(3, "Carol", "Carol@example.com", "Carol789");
+
+        //-> Created on the primary only, the replica has not caught up
+        try (Connection connection = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (3, 'Carol', 'Carol@example.com', 'Carol789')");
+        }
+
+        assertTrue(repository.addToCart(carol, phone, 1), "Adding to the new customer's cart should succeed.");
+        assertTrue(repository.removeFromCart(carol, phone), "Removing should not depend on the replica.");
+        assertTrue(repository.placeOrder(3, new int[] { 1 }, new int[] { 1 }, "123 Main Street"),
+                "Checking out should not depend on the replica.");
+        assertTrue(repository.deleteCustomer(3), "Deleting the new customer should not depend on the replica.");
+    }
+
+    @Test
+    void testStickinessSurvivesManyOtherWriters() {
+        ReadRouter router = new ReadRouter(primary, List.of(replica), 60000);
+
+        router.customerWrote(1);
+        for (int customerId = 2; customerId <= 200000; customerId++) {
+            router.customerWrote(customerId);
+        }
+        assertSame(primary, router.forCustomerRead(1), "A sticky customer should not be evicted within the window.");
+        assertSame(replica, router.forCustomerRead(200001), "A customer who did not write should read the replica.");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        primary.close();
+        replica.close();
+        for (String url : new String[] { PRIMARY_URL, REPLICA_URL }) {
+            try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+                connection.createStatement().execute("DROP ALL OBJECTS");
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.hexaware.Test;
+
+import com.hexaware.Entity.CustomerValue;
+import com.hexaware.Entity.ProductSales;
+import com.hexaware.Service.SalesAnalytics;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.SchemaUtil;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesAnalyticsTest {
+    private static final String URL = "jdbc:h2:mem:sales_analytics;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        pool = new ConnectionPool(new PoolConfig(URL, "sa", ""));
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            SchemaUtil.createSchema(connection, "../SQL Queries");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (1, 'John', 'john@example.com', 'pw')");
+            stmt.execute("INSERT INTO customers (customer_id, name, email, password) VALUES (2, 'Jane', 'jane@example.com', 'pw')");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (1, 'Phone', 500.0, 'Smartphone', 10)");
+            stmt.execute("INSERT INTO products (product_id, product_name, price, description, stockQuantity) VALUES (2, 'Case', 20.0, 'Phone case', 10)");
+        }
+    }
+
+    @Test
+    void testRefreshAddsOnlyNewOrders() throws SQLException {
+        order(1, 1, 1040.0, 1, 2, 500.0, 2, 2, 20.0);
+        order(2, 2, 500.0, 1, 1, 500.0);
+        SalesAnalytics analytics = new SalesAnalytics(pool, 0, 100, true);
+
+        assertEquals(2, analytics.refresh());
+        assertEquals(0, analytics.refresh(), "Nothing new should be loaded twice.");
+
+        order(3, 2, 20.0, 2, 1, 20.0);
+        assertEquals(1, analytics.refresh());
+        assertEquals(3, analytics.getOrderCount());
+        assertEquals(4, analytics.getItemCount());
+        assertEquals(1560.0, analytics.getTotalRevenue(), 0.001);
+
+        List<ProductSales> byProduct = analytics.getRevenueByProduct();
+        assertEquals(1, byProduct.get(0).getProductId());
+        assertEquals(3, byProduct.get(0).getUnitsSold());
+        assertEquals(1500.0, byProduct.get(0).getRevenue(), 0.001);
+        assertEquals(60.0, byProduct.get(1).getRevenue(), 0.001);
+
+        List<CustomerValue> top = analytics.getTopCustomersByLifetimeValue(1);
+        assertEquals(1, top.size());
+        assertEquals(1, top.get(0).getCustomerId());
+        assertEquals(1040.0, top.get(0).getLifetimeValue(), 0.001);
+    }
+
+    @Test
+    void testRevenueUsesPriceStoredWithTheLine() throws SQLException {
+        //-> Sold at a discount, and the catalog price changed afterwards
+        order(1, 1, 450.0, 1, 1, 450.0);
+        execute("UPDATE products SET price = 600.0 WHERE product_id = 1");
+        SalesAnalytics analytics = new SalesAnalytics(pool, 0, 100, true);
+        analytics.refresh();
+
+        assertEquals(450.0, analytics.getRevenueByProduct().get(0).getRevenue(), 0.001, "The current catalog price should not be used.");
+    }
+
+    @Test
+    void testLoadedRevenueIsNotRepriced() throws SQLException {
+        order(1, 1, 500.0, 1, 1, 500.0);
+        SalesAnalytics analytics = new SalesAnalytics(pool, 0, 100, false);
+        analytics.refresh();
+
+        execute("UPDATE products SET price = 600.0 WHERE product_id = 1");
+        order(2, 1, 600.0, 1, 1, 600.0);
+        analytics.refresh();
+
+        assertEquals(1100.0, analytics.getRevenueByProduct().get(0).getRevenue(), 0.001);
+    }
+
+    @Test
+    void testOrdersWithoutCustomerAreReportedSeparately() throws SQLException {
+        order(1, 1, 500.0, 1, 1, 500.0);
+        execute("INSERT INTO orders (order_id, customer_id, order_date, total_price, shipping_address) VALUES (2, NULL, CURRENT_DATE, 20.0, 'Gone')");
+        execute("INSERT INTO order_items (order_id, product_id, quantity) VALUES (2, 2, 1)");
+        SalesAnalytics analytics = new SalesAnalytics(pool, 0, 100, false);
+        analytics.refresh();
+
+        assertEquals(2, analytics.getOrderCount());
+        assertEquals(1, analytics.getOrdersWithoutCustomer());
+        assertEquals(520.0, analytics.getTotalRevenue(), 0.001);
+        List<CustomerValue> customers = analytics.getTopCustomersByLifetimeValue(10);
+        assertEquals(1, customers.size(), "A missing customer must not be ranked as customer 0.");
+        assertEquals(1, customers.get(0).getCustomerId());
+    }
+
+    @Test
+    void testOverlapPicksUpLateLowerIds() throws SQLException {
+        order(1, 1, 500.0, 1, 1, 500.0);
+        order(5, 1, 500.0, 1, 1, 500.0);
+        SalesAnalytics analytics = new SalesAnalytics(pool, 10, 100, true);
+        assertEquals(2, analytics.refresh());
+
+        //-> Another node's id block committed after the first refresh
+        order(3, 2, 20.0, 2, 1, 20.0);
+        assertEquals(1, analytics.refresh(), "Only the late order should be added.");
+        assertEquals(3, analytics.getOrderCount());
+        assertEquals(1020.0, analytics.getTotalRevenue(), 0.001);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        pool.close();
+    }
+
+    //-> Writes the order with its items and history lines; lines are product id, quantity, unit price triples
+    private void order(int orderId, int customerId, double total, double... lines) throws SQLException {
+        execute("INSERT INTO orders (order_id, customer_id, order_date, total_price, shipping_address) VALUES ("
+                + orderId + ", " + customerId + ", CURRENT_DATE, " + total + ", 'Street 1')");
+        for (int i = 0; i < lines.length; i += 3) {
+            int productId = (int) lines[i];
+            int quantity = (int) lines[i + 1];
+            execute("INSERT INTO order_items (order_id, product_id, quantity) VALUES (" + orderId + ", " + productId + ", " + quantity + ")");
+            execute("INSERT INTO order_history_lines (customer_id, order_id, line_no, order_date, total_price, shipping_address, product_id, product_name, unit_price, quantity) "
+                    + "VALUES (" + customerId + ", " + orderId + ", " + (i / 3 + 1) + ", CURRENT_TIMESTAMP, " + total + ", 'Street 1', " + productId
+                    + ", 'Product " + productId + "', " + lines[i + 2] + ", " + quantity + ")");
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hexaware.Dao;
+
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Page;
+import com.hexaware.Entity.Product;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+//-> Non-blocking counterpart of OrderProcessorRepository, the *NotFoundExceptions arrive as failed futures
+public interface AsyncOrderProcessorRepository extends AutoCloseable {
+	
+    CompletableFuture<Boolean> createProduct(Product product);
+    
+    CompletableFuture<Long> createProducts(Iterator<Product> products);
+    
+    CompletableFuture<Long> createProducts(Iterator<Product> products, int batchSize, int commitSize, BulkImportListener listener);
+    
+    CompletableFuture<Boolean> createCustomer(Customer customer);
+    
+    CompletableFuture<Boolean> deleteProduct(int productId);
+    
+    CompletableFuture<List<Product>> searchProducts(String query, int limit);
+    
+    CompletableFuture<Boolean> deleteCustomer(int customerId);
+    
+    CompletableFuture<Boolean> addToCart(Customer customer, Product product, int quantity);
+    
+    CompletableFuture<Boolean> removeFromCart(Customer customer, Product product);
+    
+    CompletableFuture<List<Product>> getAllFromCart(Customer customer);
+    
+    CompletableFuture<Page<Product>> getCartPage(Customer customer, String cursor, int pageSize);
+    
+    //-> consumer runs on the worker thread, the future completes after the last row
+    CompletableFuture<Void> forEachInCart(Customer customer, Consumer<Product> consumer);
+    
+    CompletableFuture<Boolean> placeOrder(Customer customer, List<Map<Product, Integer>> productsWithQuantities, String shippingAddress);
+    
+    CompletableFuture<Boolean> placeOrder(int customerId, int[] productIds, int[] quantities, String shippingAddress);
+    
+    CompletableFuture<Boolean> placeOrder(int customerId, OrderLines lines, String shippingAddress);
+    
+    CompletableFuture<List<Map<Product, Integer>>> getOrdersByCustomer(int customerId);
+    
+    CompletableFuture<List<OrderDetails>> getOrderHistory(int customerId);
+    
+    CompletableFuture<Page<OrderDetails>> getOrderHistoryPage(int customerId, String cursor, int pageSize);
+    
+    //-> consumer runs on the worker thread, the future completes after the last order
+    CompletableFuture<Void> forEachOrder(int customerId, Consumer<OrderDetails> consumer);
+    
+    @Override
+    void close();
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.hexaware.Dao;
+
+//-> Progress callback for bulk imports, called once per commit with the IDs generated since the previous one
+public interface BulkImportListener {
+	
+    void onCommit(int[] generatedIds, long rowsImported);
+}
\ No newline at end of file
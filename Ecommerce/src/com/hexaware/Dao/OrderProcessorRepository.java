@@ -1,21 +1,32 @@
 package com.hexaware.Dao;
 
 import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Page;
 import com.hexaware.Entity.Product;
 import com.hexaware.Exception.CustomerNotFoundException;
 import com.hexaware.Exception.OrderNotFoundException;
 import com.hexaware.Exception.ProductNotFoundException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface OrderProcessorRepository {
 	
     boolean createProduct(Product product);
     
+    long createProducts(Iterator<Product> products);
+    
+    long createProducts(Iterator<Product> products, int batchSize, int commitSize, BulkImportListener listener);
+    
     boolean createCustomer(Customer customer);
     
     boolean deleteProduct(int productId) throws ProductNotFoundException;
     
+    List<Product> searchProducts(String query, int limit);
+    
     boolean deleteCustomer(int customerId) throws CustomerNotFoundException;
     
     boolean addToCart(Customer customer, Product product, int quantity) throws CustomerNotFoundException, ProductNotFoundException;
@@ -24,7 +35,21 @@ public interface OrderProcessorRepository {
     
     List<Product> getAllFromCart(Customer customer) throws CustomerNotFoundException;
     
+    Page<Product> getCartPage(Customer customer, String cursor, int pageSize) throws CustomerNotFoundException;
+    
+    void forEachInCart(Customer customer, Consumer<Product> consumer) throws CustomerNotFoundException;
+    
     boolean placeOrder(Customer customer, List<Map<Product, Integer>> productsWithQuantities, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException;
     
+    boolean placeOrder(int customerId, int[] productIds, int[] quantities, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException;
+    
+    boolean placeOrder(int customerId, OrderLines lines, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException;
+    
     List<Map<Product, Integer>> getOrdersByCustomer(int customerId) throws CustomerNotFoundException, OrderNotFoundException;
+    
+    List<OrderDetails> getOrderHistory(int customerId) throws CustomerNotFoundException, OrderNotFoundException;
+    
+    Page<OrderDetails> getOrderHistoryPage(int customerId, String cursor, int pageSize) throws CustomerNotFoundException;
+    
+    void forEachOrder(int customerId, Consumer<OrderDetails> consumer) throws CustomerNotFoundException;
 }
\ No newline at end of file
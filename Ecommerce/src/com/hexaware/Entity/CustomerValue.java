@@ -0,0 +1,48 @@
+package com.hexaware.Entity;
+
+public class CustomerValue {
+    private int customerId;
+    private int orderCount;
+    private double lifetimeValue;
+
+    //-> Default & Parameterized Constructors
+    public CustomerValue() {}
+
+    public CustomerValue(int customerId, int orderCount, double lifetimeValue) {
+        this.customerId = customerId;
+        this.orderCount = orderCount;
+        this.lifetimeValue = lifetimeValue;
+    }
+
+    //-> Getters and Setters
+    public int getCustomerId() {
+        return customerId;
+    }
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+    public void setOrderCount(int orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    //-> Sum of total_price over the customer's orders
+    public double getLifetimeValue() {
+        return lifetimeValue;
+    }
+    public void setLifetimeValue(double lifetimeValue) {
+        this.lifetimeValue = lifetimeValue;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerValue{" +
+                "customerId=" + customerId +
+                ", orderCount=" + orderCount +
+                ", lifetimeValue=" + lifetimeValue +
+                '}';
+    }
+}
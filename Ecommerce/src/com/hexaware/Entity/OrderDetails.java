@@ -0,0 +1,80 @@
+package com.hexaware.Entity;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class OrderDetails {
+    private int orderId;
+    private int customerId;
+    private Timestamp orderDate;
+    private double totalPrice;
+    private String shippingAddress;
+    private Map<Product, Integer> items = new LinkedHashMap<>();
+
+    //-> Default & Parameterized Constructors
+    public OrderDetails() {}
+
+    public OrderDetails(int orderId, int customerId, Timestamp orderDate, double totalPrice, String shippingAddress) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.orderDate = orderDate;
+        this.totalPrice = totalPrice;
+        this.shippingAddress = shippingAddress;
+    }
+
+    //-> Getters and Setters
+    public int getOrderId() {
+        return orderId;
+    }
+    public void setOrderId(int orderId) {
+        this.orderId = orderId;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public Timestamp getOrderDate() {
+        return orderDate;
+    }
+    public void setOrderDate(Timestamp orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+    public void setTotalPrice(double totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+    public void setShippingAddress(String shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public Map<Product, Integer> getItems() {
+        return items;
+    }
+    public void setItems(Map<Product, Integer> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderDetails{" +
+                "orderId=" + orderId +
+                ", customerId=" + customerId +
+                ", orderDate=" + orderDate +
+                ", totalPrice=" + totalPrice +
+                ", shippingAddress='" + shippingAddress + '\'' +
+                ", items=" + items +
+                '}';
+    }
+}
\ No newline at end of file
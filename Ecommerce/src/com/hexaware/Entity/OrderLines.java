@@ -0,0 +1,116 @@
+package com.hexaware.Entity;
+
+import java.util.Arrays;
+
+//-> A basket as parallel primitive arrays, meant to be filled, passed to placeOrder and cleared for the next basket.
+//-> Lines added by id only are priced from the catalog when the order is placed; lines added with a name and price
+//-> are taken as given, the way the List<Map<Product, Integer>> signature always worked.
+public class OrderLines {
+    private int[] productIds;
+    private int[] quantities;
+    private String[] productNames;
+    private double[] unitPrices;
+    private int size;
+
+    //-> Default & Parameterized Constructors
+    public OrderLines() {
+        this(16);
+    }
+
+    public OrderLines(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.productIds = new int[capacity];
+        this.quantities = new int[capacity];
+        this.productNames = new String[capacity];
+        this.unitPrices = new double[capacity];
+    }
+
+    //-> Convenience for callers that already hold the two arrays, the lines are priced from the catalog
+    public OrderLines(int[] productIds, int[] quantities) {
+        if (productIds.length != quantities.length) {
+            throw new IllegalArgumentException("productIds and quantities must have the same length.");
+        }
+        this.productIds = Arrays.copyOf(productIds, Math.max(1, productIds.length));
+        this.quantities = Arrays.copyOf(quantities, Math.max(1, quantities.length));
+        this.productNames = new String[this.productIds.length];
+        this.unitPrices = new double[this.productIds.length];
+        Arrays.fill(this.unitPrices, Double.NaN);
+        this.size = productIds.length;
+    }
+
+    public OrderLines add(int productId, int quantity) {
+        return add(productId, quantity, null, Double.NaN);
+    }
+
+    public OrderLines add(int productId, int quantity, String productName, double unitPrice) {
+        if (size == productIds.length) {
+            int capacity = size * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            productNames = Arrays.copyOf(productNames, capacity);
+            unitPrices = Arrays.copyOf(unitPrices, capacity);
+        }
+        productIds[size] = productId;
+        quantities[size] = quantity;
+        productNames[size] = productName;
+        unitPrices[size] = unitPrice;
+        size++;
+        return this;
+    }
+
+    //-> Keeps the arrays, so a buffer reused across orders stops allocating once it has grown to the largest basket
+    public void clear() {
+        Arrays.fill(productNames, 0, size, null);
+        size = 0;
+    }
+
+    //-> Getters
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getProductId(int line) {
+        return productIds[checkLine(line)];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[checkLine(line)];
+    }
+
+    //-> null when the line was added by id only
+    public String getProductName(int line) {
+        return productNames[checkLine(line)];
+    }
+
+    //-> NaN when the line was added by id only
+    public double getUnitPrice(int line) {
+        return unitPrices[checkLine(line)];
+    }
+
+    public boolean isPriced(int line) {
+        return !Double.isNaN(unitPrices[checkLine(line)]);
+    }
+
+    private int checkLine(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + size);
+        }
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("OrderLines{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(productIds[i]).append('x').append(quantities[i]);
+        }
+        return builder.append('}').toString();
+    }
+}
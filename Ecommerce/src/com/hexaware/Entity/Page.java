@@ -0,0 +1,44 @@
+package com.hexaware.Entity;
+
+import java.util.List;
+
+public class Page<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    //-> Default & Parameterized Constructors
+    public Page() {}
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    //-> Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    //-> Pass back to fetch the following page, null once the last page has been returned
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.hexaware.Entity;
+
+public class ProductSales {
+    private int productId;
+    private String productName;
+    private long unitsSold;
+    private double revenue;
+
+    //-> Default & Parameterized Constructors
+    public ProductSales() {}
+
+    public ProductSales(int productId, String productName, long unitsSold, double revenue) {
+        this.productId = productId;
+        this.productName = productName;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    //-> Getters and Setters
+    public int getProductId() {
+        return productId;
+    }
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+    public void setUnitsSold(long unitsSold) {
+        this.unitsSold = unitsSold;
+    }
+
+    //-> Units sold times the product's current price (order_items keeps no price of its own)
+    public double getRevenue() {
+        return revenue;
+    }
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSales{" +
+                "productId=" + productId +
+                ", productName='" + productName + '\'' +
+                ", unitsSold=" + unitsSold +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
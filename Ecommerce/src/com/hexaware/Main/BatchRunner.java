@@ -0,0 +1,349 @@
+package com.hexaware.Main;
+
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Product;
+import com.hexaware.Util.ThreadUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+//-> Runs a command script through the repository without the menu. One command per line, fields separated by '|',
+//-> blank lines and lines starting with '#' are skipped:
+//->   register|name|email|password          product|name|price|description|stockQuantity     deleteProduct|productId
+//->   addToCart|customerId|productId|qty    removeFromCart|customerId|productId
+//->   placeOrder|customerId|shippingAddress (checks out the cart, one of each product like the menu)
+//->   deleteCustomer|customerId
+//->
+//-> The script is cut into phases of catalog, registration and per-customer commands. Each phase runs
+//-> on parallelism workers and completes before the next starts, so a later line can rely on the rows an
+//-> earlier phase created. Per-customer commands stay in script order per customer, and consecutive products are
+//-> inserted groupSize per transaction through the bulk import.
+public class BatchRunner {
+    private static final int MAX_IN_FLIGHT = 10000;
+
+    private enum Phase { CATALOG, REGISTRATION, CUSTOMER }
+
+    private final OrderProcessorRepository repository;
+    private final int parallelism;
+    private final int groupSize;
+    private final PrintStream out;
+
+    private final ExecutorService[] workers;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final Map<String, LongAdder> succeeded = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failed = new ConcurrentHashMap<>();
+    private final List<Product> pendingProducts = new ArrayList<>();
+    //-> Imports queued in this phase that a deleteProduct has not waited for yet
+    private final List<Future<?>> queuedImports = new ArrayList<>();
+    private int pendingProductsFirstLine;
+    private int nextWorker;
+
+    public BatchRunner(OrderProcessorRepository repository, int parallelism, int groupSize, PrintStream out) {
+        this.repository = repository;
+        this.parallelism = Math.max(1, parallelism);
+        this.groupSize = Math.max(1, groupSize);
+        this.out = out;
+        this.workers = new ExecutorService[this.parallelism];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(ThreadUtil.daemonThreadFactory("batch-" + i));
+        }
+    }
+
+    //-> Runs every command and prints the summary, true when nothing failed
+    public boolean run(BufferedReader reader) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Phase phase = null;
+        int lineNumber = 0;
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = trimmed.split("\\|", -1);
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+
+                Phase next = phaseOf(fields[0]);
+                if (next == null) {
+                    fail(lineNumber, fields[0], "Unknown command.");
+                    continue;
+                }
+                if (next != phase) {
+                    flushProducts();
+                    awaitPhase();
+                    phase = next;
+                }
+                try {
+                    submit(lineNumber, fields);
+                } catch (IllegalArgumentException e) {
+                    fail(lineNumber, fields[0], e.getMessage());
+                }
+            }
+            flushProducts();
+            awaitPhase();
+        } finally {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
+
+        return printSummary(System.nanoTime() - start);
+    }
+
+    private static Phase phaseOf(String command) {
+        switch (command) {
+            case "product":
+            case "deleteProduct":
+                return Phase.CATALOG;
+            case "register":
+                return Phase.REGISTRATION;
+            case "addToCart":
+            case "removeFromCart":
+            case "placeOrder":
+            case "deleteCustomer":
+                return Phase.CUSTOMER;
+            default:
+                return null;
+        }
+    }
+
+    //-> Parses one command on the reading thread, so syntax errors are reported in order, and queues it
+    private void submit(int lineNumber, String[] fields) throws InterruptedException {
+        String command = fields[0];
+        switch (command) {
+            case "product": {
+                expectFields(fields, 5);
+                if (pendingProducts.isEmpty()) {
+                    pendingProductsFirstLine = lineNumber;
+                }
+                pendingProducts.add(new Product(fields[1], parseDouble(fields[2]), fields[3], parseInt(fields[4])));
+                if (pendingProducts.size() >= groupSize) {
+                    flushProducts();
+                }
+                break;
+            }
+            case "deleteProduct": {
+                expectFields(fields, 2);
+                int productId = parseInt(fields[1]);
+                //-> A product created earlier in this phase must exist before it can be deleted: the imports run on
+                //-> other workers, so they are waited for before the delete is queued
+                flushProducts();
+                awaitImports();
+                execute(roundRobin(), lineNumber, command, () -> repository.deleteProduct(productId));
+                break;
+            }
+            case "register": {
+                expectFields(fields, 4);
+                Customer customer = new Customer(fields[1], fields[2], fields[3]);
+                execute(roundRobin(), lineNumber, command, () -> repository.createCustomer(customer));
+                break;
+            }
+            case "addToCart": {
+                expectFields(fields, 4);
+                Customer customer = customer(fields[1]);
+                Product product = product(fields[2]);
+                int quantity = parseInt(fields[3]);
+                execute(stripe(customer), lineNumber, command, () -> repository.addToCart(customer, product, quantity));
+                break;
+            }
+            case "removeFromCart": {
+                expectFields(fields, 3);
+                Customer customer = customer(fields[1]);
+                Product product = product(fields[2]);
+                execute(stripe(customer), lineNumber, command, () -> repository.removeFromCart(customer, product));
+                break;
+            }
+            case "placeOrder": {
+                expectFields(fields, 3);
+                Customer customer = customer(fields[1]);
+                String shippingAddress = fields[2];
+                execute(stripe(customer), lineNumber, command, () -> placeOrder(customer, shippingAddress));
+                break;
+            }
+            case "deleteCustomer": {
+                expectFields(fields, 2);
+                Customer customer = customer(fields[1]);
+                execute(stripe(customer), lineNumber, command, () -> repository.deleteCustomer(customer.getCustomerId()));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown command.");
+        }
+    }
+
+    private boolean placeOrder(Customer customer, String shippingAddress) throws Exception {
+        List<Product> cartProducts = repository.getAllFromCart(customer);
+        if (cartProducts.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty.");
+        }
+        OrderLines lines = new OrderLines(cartProducts.size());
+        for (Product product : cartProducts) {
+            lines.add(product.getProductId(), 1, product.getName(), product.getPrice());
+        }
+        return repository.placeOrder(customer.getCustomerId(), lines, shippingAddress);
+    }
+
+    //-> Consecutive product lines go in as one bulk import, committed every groupSize rows
+    private void flushProducts() throws InterruptedException {
+        if (pendingProducts.isEmpty()) {
+            return;
+        }
+        List<Product> products = new ArrayList<>(pendingProducts);
+        int firstLine = pendingProductsFirstLine;
+        pendingProducts.clear();
+
+        inFlight.acquire();
+        queuedImports.add(roundRobin().submit(() -> {
+            try {
+                long created = repository.createProducts(products.iterator(), groupSize, groupSize, null);
+                count(succeeded, "product", created);
+                if (created < products.size()) {
+                    count(failed, "product", products.size() - created);
+                    out.println("Lines " + firstLine + "+: " + (products.size() - created) + " of " + products.size()
+                            + " products were not created.");
+                }
+            } catch (RuntimeException e) {
+                count(failed, "product", products.size());
+                out.println("Lines " + firstLine + "+: product import failed: " + e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        }));
+    }
+
+    private void awaitImports() throws InterruptedException {
+        for (Future<?> queued : queuedImports) {
+            try {
+                queued.get();
+            } catch (ExecutionException e) {
+                //-> The import reports its own failures
+            }
+        }
+        queuedImports.clear();
+    }
+
+    private interface Command {
+        boolean call() throws Exception;
+    }
+
+    private void execute(ExecutorService worker, int lineNumber, String name, Command command) throws InterruptedException {
+        inFlight.acquire();
+        worker.execute(() -> {
+            try {
+                if (command.call()) {
+                    count(succeeded, name, 1);
+                } else {
+                    fail(lineNumber, name, "Repository reported failure.");
+                }
+            } catch (Exception e) {
+                fail(lineNumber, name, e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    //-> Waits until every queued command has finished
+    private void awaitPhase() throws InterruptedException {
+        inFlight.acquire(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+        queuedImports.clear();
+    }
+
+    private boolean printSummary(long elapsedNanos) {
+        long totalSucceeded = 0;
+        long totalFailed = 0;
+        Map<String, long[]> byCommand = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : succeeded.entrySet()) {
+            byCommand.computeIfAbsent(entry.getKey(), name -> new long[2])[0] = entry.getValue().sum();
+            totalSucceeded += entry.getValue().sum();
+        }
+        for (Map.Entry<String, LongAdder> entry : failed.entrySet()) {
+            byCommand.computeIfAbsent(entry.getKey(), name -> new long[2])[1] = entry.getValue().sum();
+            totalFailed += entry.getValue().sum();
+        }
+
+        double seconds = elapsedNanos / 1e9;
+        out.println("\n===== Batch Summary =====");
+        for (Map.Entry<String, long[]> entry : byCommand.entrySet()) {
+            out.printf("%-16s %8d succeeded %8d failed%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+        out.printf("%-16s %8d succeeded %8d failed%n", "total", totalSucceeded, totalFailed);
+        out.printf("Elapsed: %.3f s (%.0f commands/s)%n", seconds, seconds > 0 ? (totalSucceeded + totalFailed) / seconds : 0.0);
+        return totalFailed == 0;
+    }
+
+    //-> Helper methods
+    private void fail(int lineNumber, String command, String message) {
+        count(failed, command, 1);
+        out.println("Line " + lineNumber + ": " + command + " failed: " + message);
+    }
+
+    private static void count(Map<String, LongAdder> counters, String command, long n) {
+        counters.computeIfAbsent(command, name -> new LongAdder()).add(n);
+    }
+
+    private ExecutorService roundRobin() {
+        ExecutorService worker = workers[nextWorker];
+        nextWorker = (nextWorker + 1) % workers.length;
+        return worker;
+    }
+
+    //-> The same customer always lands on the same worker, which keeps their commands in script order
+    private ExecutorService stripe(Customer customer) {
+        return workers[Math.floorMod(customer.getCustomerId(), workers.length)];
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("Expected " + (count - 1) + " arguments, got " + (fields.length - 1) + ".");
+        }
+    }
+
+    private static Customer customer(String id) {
+        Customer customer = new Customer();
+        customer.setCustomerId(parseInt(id));
+        return customer;
+    }
+
+    private static Product product(String id) {
+        Product product = new Product();
+        product.setProductId(parseInt(id));
+        return product;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: '" + value + "'.");
+        }
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: '" + value + "'.");
+        }
+    }
+}
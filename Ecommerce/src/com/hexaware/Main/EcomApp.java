@@ -1,21 +1,43 @@
 package com.hexaware.Main;
 
 import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Service.AsyncOrderProcessorRepositoryImpl;
 import com.hexaware.Service.OrderProcessorRepositoryImpl;
+import com.hexaware.Service.RepositoryMetrics;
+import com.hexaware.Util.DBPropertyUtil;
 import com.hexaware.Entity.Customer;
 import com.hexaware.Entity.Product;
 import com.hexaware.Exception.CustomerNotFoundException;
 import com.hexaware.Exception.OrderNotFoundException;
 import com.hexaware.Exception.ProductNotFoundException;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.*;
 
 public class EcomApp {
     private static OrderProcessorRepository orderProcessor;
     private static Scanner scanner;
 
-    public static void main(String[] args) {
-        orderProcessor = new OrderProcessorRepositoryImpl();
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Properties properties = DBPropertyUtil.getProperties("db.properties");
+        orderProcessor = RepositoryMetrics.instrument(new OrderProcessorRepositoryImpl(), properties);
+
+        //-> --http serves the JSON API on http.port instead of the menu
+        if (args.length > 0 && "--http".equals(args[0])) {
+            int maxConcurrency = DBPropertyUtil.getInt(properties, "async.maxConcurrency", DBPropertyUtil.getInt(properties, "db.pool.maxSize", 10));
+            int maxQueued = DBPropertyUtil.getInt(properties, "async.maxQueued", 1000);
+            HttpApiServer.serve(new AsyncOrderProcessorRepositoryImpl(orderProcessor, maxConcurrency, maxQueued), properties);
+            return;
+        }
+
+        //-> --batch <file|-> [--parallel n] [--group n] runs a command script instead of the menu
+        if (args.length > 0) {
+            System.exit(runBatch(args, properties) ? 0 : 1);
+        }
+
         scanner = new Scanner(System.in);
 
         boolean running = true;
@@ -28,7 +50,8 @@ public class EcomApp {
             System.out.println("5. View Cart");
             System.out.println("6. Place Order");
             System.out.println("7. View Customer Orders");
-            System.out.println("8. Exit");
+            System.out.println("8. Search Products");
+            System.out.println("9. Exit");
             System.out.print("Enter your choice: ");
 
             int choice = scanner.nextInt();
@@ -58,6 +81,9 @@ public class EcomApp {
                         viewCustomerOrders();
                         break;
                     case 8:
+                        searchProducts();
+                        break;
+                    case 9:
                         running = false;
                         System.out.println("Exiting the system. Goodbye!");
                         break;
@@ -78,6 +104,36 @@ public class EcomApp {
         scanner.close();
     }
 
+    private static boolean runBatch(String[] args, Properties properties) throws IOException, InterruptedException {
+        String script = null;
+        int parallelism = DBPropertyUtil.getInt(properties, "batch.parallelism", 4);
+        int groupSize = DBPropertyUtil.getInt(properties, "batch.groupSize", 1000);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--batch":
+                    script = args[i + 1];
+                    break;
+                case "--parallel":
+                    parallelism = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--group":
+                    groupSize = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (script == null || args.length % 2 != 0) {
+            System.out.println("Usage: EcomApp --batch <file|-> [--parallel n] [--group n]");
+            return false;
+        }
+
+        BatchRunner runner = new BatchRunner(orderProcessor, parallelism, groupSize, System.out);
+        try (BufferedReader reader = new BufferedReader("-".equals(script) ? new InputStreamReader(System.in) : new FileReader(script))) {
+            return runner.run(reader);
+        }
+    }
+
     private static void registerCustomer() {
         System.out.println("\n--- Register New Customer ---");
         System.out.print("Enter customer name: ");
@@ -192,6 +248,23 @@ public class EcomApp {
         }
     }
 
+    private static void searchProducts() {
+        System.out.println("\n--- Search Products ---");
+        System.out.print("Enter search words: ");
+        String query = scanner.nextLine();
+
+        List<Product> products = orderProcessor.searchProducts(query, 10);
+
+        if (products.isEmpty()) {
+            System.out.println("No matching products found.");
+        } else {
+            System.out.println("\nMatching products:");
+            for (Product product : products) {
+                System.out.println(product);
+            }
+        }
+    }
+
     private static void placeOrder() throws CustomerNotFoundException, ProductNotFoundException {
         System.out.println("\n--- Place Order ---");
         System.out.print("Enter customer ID: ");
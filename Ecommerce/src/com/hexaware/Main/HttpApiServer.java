@@ -0,0 +1,433 @@
+package com.hexaware.Main;
+
+import com.hexaware.Dao.AsyncOrderProcessorRepository;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Page;
+import com.hexaware.Entity.Product;
+import com.hexaware.Exception.CustomerNotFoundException;
+import com.hexaware.Exception.OrderNotFoundException;
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Util.DBPropertyUtil;
+import com.hexaware.Util.JsonUtil;
+import com.hexaware.Util.ThreadUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//-> JSON over HTTP in front of the async repository, on the JDK's built-in server with a thread per exchange
+//-> (virtual where available). Routes:
+//->   POST   /customers                          {"name","email","password"}                       201 {"customerId"}
+//->   DELETE /customers/{id}                                                                           204
+//->   POST   /products                           {"name","price","description","stockQuantity"}     201 {"productId"}
+//->   DELETE /products/{id}                                                                            204
+//->   GET    /products/search?q=&limit=10                                                              200 [product]
+//->   GET    /customers/{id}/cart                                                                      200 [product]
+//->   POST   /customers/{id}/cart                {"productId","quantity"}                             204
+//->   DELETE /customers/{id}/cart/{productId}                                                          204
+//->   POST   /customers/{id}/orders              {"shippingAddress"} checks out the cart              201
+//->   GET    /customers/{id}/orders?cursor=&limit=20                                                   200 {"items","nextCursor"}
+//-> Unknown customer/product/order: 404, insufficient stock or empty cart: 409, past http.requestTimeoutMillis: 504.
+public class HttpApiServer {
+    private final AsyncOrderProcessorRepository repository;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long requestTimeoutMillis;
+    private final int maxRequestBytes;
+
+    public HttpApiServer(AsyncOrderProcessorRepository repository, Properties properties) throws IOException {
+        this.repository = repository;
+        this.requestTimeoutMillis = DBPropertyUtil.getLong(properties, "http.requestTimeoutMillis", 5000);
+        this.maxRequestBytes = DBPropertyUtil.getInt(properties, "http.maxRequestBytes", 65536);
+
+        //-> Keep-alive and socket-level limits are JVM-wide settings of the built-in server, read when it is first used
+        setIfAbsent("sun.net.httpserver.idleInterval", properties.getProperty("http.keepAliveSeconds", "30"));
+        setIfAbsent("sun.net.httpserver.maxIdleConnections", properties.getProperty("http.maxIdleConnections", "200"));
+        setIfAbsent("sun.net.httpserver.maxReqTime", String.valueOf(
+                Math.max(1, TimeUnit.MILLISECONDS.toSeconds(requestTimeoutMillis))));
+
+        //-> The backlog bounds connections the OS queues before we accept them, beyond that clients are refused
+        this.server = HttpServer.create(new InetSocketAddress(DBPropertyUtil.getInt(properties, "http.port", 8080)),
+                DBPropertyUtil.getInt(properties, "http.backlog", 128));
+        this.executor = ThreadUtil.newVirtualThreadExecutor("http", DBPropertyUtil.getInt(properties, "http.maxThreads", 200),
+                DBPropertyUtil.getInt(properties, "http.backlog", 128));
+        //-> When every handler thread is busy the exchange runs on the dispatcher, which stops accepting until it is done
+        server.setExecutor(task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        });
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    //-> Stops accepting, lets exchanges in progress finish for up to delaySeconds
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    //-> Runs until the JVM is stopped
+    public static void serve(AsyncOrderProcessorRepository repository, Properties properties) throws IOException {
+        HttpApiServer apiServer = new HttpApiServer(repository, properties);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop(DBPropertyUtil.getInt(properties, "http.shutdownDelaySeconds", 5));
+            repository.close();
+        }));
+        apiServer.start();
+        System.out.println("HTTP API listening on port " + apiServer.getPort());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+        try {
+            Response response = route(exchange, deadline);
+            send(exchange, response.status, response.body);
+        } catch (ApiException e) {
+            send(exchange, e.status, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, error("Internal error."));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response route(HttpExchange exchange, long deadline) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        if (path[0].equals("customers")) {
+            if (path.length == 1) {
+                requireMethod(method, "POST");
+                Map<String, Object> body = readBody(exchange);
+                Customer customer = new Customer(requireString(body, "name"), requireString(body, "email"), requireString(body, "password"));
+                requireSuccess(await(repository.createCustomer(customer), deadline));
+                return new Response(201, object("customerId", customer.getCustomerId()));
+            }
+            int customerId = parseId(path[1]);
+            Customer customer = new Customer();
+            customer.setCustomerId(customerId);
+
+            if (path.length == 2) {
+                requireMethod(method, "DELETE");
+                requireSuccess(await(repository.deleteCustomer(customerId), deadline));
+                return new Response(204, null);
+            }
+            if (path[2].equals("cart") && path.length == 3 && method.equals("GET")) {
+                return new Response(200, products(await(repository.getAllFromCart(customer), deadline)));
+            }
+            if (path[2].equals("cart") && path.length == 3) {
+                requireMethod(method, "POST");
+                Map<String, Object> body = readBody(exchange);
+                Product product = new Product();
+                product.setProductId(requireInt(body, "productId"));
+                requireSuccess(await(repository.addToCart(customer, product, requireInt(body, "quantity")), deadline));
+                return new Response(204, null);
+            }
+            if (path[2].equals("cart") && path.length == 4) {
+                requireMethod(method, "DELETE");
+                Product product = new Product();
+                product.setProductId(parseId(path[3]));
+                if (!await(repository.removeFromCart(customer, product), deadline)) {
+                    throw new ApiException(404, "Product " + product.getProductId() + " is not in the cart.");
+                }
+                return new Response(204, null);
+            }
+            if (path[2].equals("orders") && path.length == 3 && method.equals("GET")) {
+                int limit = parseLimit(query.get("limit"), 20);
+                Page<OrderDetails> page = await(repository.getOrderHistoryPage(customerId, query.get("cursor"), limit), deadline);
+                List<Object> orders = new ArrayList<>();
+                for (OrderDetails order : page.getItems()) {
+                    orders.add(order(order));
+                }
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("items", orders);
+                body.put("nextCursor", page.getNextCursor());
+                return new Response(200, body);
+            }
+            if (path[2].equals("orders") && path.length == 3) {
+                requireMethod(method, "POST");
+                String shippingAddress = requireString(readBody(exchange), "shippingAddress");
+                return placeOrder(customer, shippingAddress, deadline);
+            }
+        } else if (path[0].equals("products")) {
+            if (path.length == 1) {
+                requireMethod(method, "POST");
+                Map<String, Object> body = readBody(exchange);
+                Product product = new Product(requireString(body, "name"), requireNumber(body, "price"),
+                        requireString(body, "description"), requireInt(body, "stockQuantity"));
+                requireSuccess(await(repository.createProduct(product), deadline));
+                return new Response(201, object("productId", product.getProductId()));
+            }
+            if (path.length == 2 && path[1].equals("search")) {
+                requireMethod(method, "GET");
+                String q = query.getOrDefault("q", "");
+                return new Response(200, products(await(repository.searchProducts(q, parseLimit(query.get("limit"), 10)), deadline)));
+            }
+            if (path.length == 2) {
+                requireMethod(method, "DELETE");
+                requireSuccess(await(repository.deleteProduct(parseId(path[1])), deadline));
+                return new Response(204, null);
+            }
+        }
+        throw new ApiException(404, "No such resource.");
+    }
+
+    //-> Checks out the whole cart, one of each product like the console menu
+    private Response placeOrder(Customer customer, String shippingAddress, long deadline) {
+        List<Product> cartProducts = await(repository.getAllFromCart(customer), deadline);
+        if (cartProducts.isEmpty()) {
+            throw new ApiException(409, "Cart is empty.");
+        }
+        OrderLines lines = new OrderLines(cartProducts.size());
+        for (Product product : cartProducts) {
+            lines.add(product.getProductId(), 1, product.getName(), product.getPrice());
+        }
+        requireSuccess(await(repository.placeOrder(customer.getCustomerId(), lines, shippingAddress), deadline));
+        return new Response(201, object("lines", cartProducts.size()));
+    }
+
+    //-> Waits for the repository call until the request's deadline and turns its failure into a status code
+    private static <T> T await(CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            //-> A call still waiting for a permit is dropped, one already running finishes in the background
+            future.cancel(false);
+            throw new ApiException(504, "Request timed out.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Server is shutting down.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CustomerNotFoundException || cause instanceof ProductNotFoundException
+                    || cause instanceof OrderNotFoundException) {
+                throw new ApiException(404, cause.getMessage());
+            }
+            if (cause instanceof IllegalArgumentException) {
+                throw new ApiException(409, cause.getMessage());
+            }
+            if (cause instanceof RejectedExecutionException) {
+                throw new ApiException(503, "Server is busy or shutting down.");
+            }
+            cause.printStackTrace();
+            throw new ApiException(500, "Internal error.");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = JsonUtil.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    //-> Request parsing
+    private Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(maxRequestBytes + 1);
+        }
+        if (bytes.length > maxRequestBytes) {
+            throw new ApiException(413, "Request body larger than " + maxRequestBytes + " bytes.");
+        }
+        try {
+            Object body = JsonUtil.parse(new String(bytes, StandardCharsets.UTF_8));
+            if (!(body instanceof Map)) {
+                throw new ApiException(400, "Expected a JSON object.");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) body;
+            return fields;
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            try {
+                query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Malformed query string.");
+            }
+        }
+        return query;
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new ApiException(405, "Method " + method + " not allowed here.");
+        }
+    }
+
+    //-> The repository reports database errors as false, the details are in its log
+    private static void requireSuccess(boolean success) {
+        if (!success) {
+            throw new ApiException(500, "Operation failed.");
+        }
+    }
+
+    private static String requireString(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof String) || ((String) value).isBlank()) {
+            throw new ApiException(400, "Field '" + field + "' must be a non-empty string.");
+        }
+        return (String) value;
+    }
+
+    private static double requireNumber(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Double)) {
+            throw new ApiException(400, "Field '" + field + "' must be a number.");
+        }
+        return (Double) value;
+    }
+
+    private static int requireInt(Map<String, Object> body, String field) {
+        double value = requireNumber(body, field);
+        if (value != Math.rint(value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ApiException(400, "Field '" + field + "' must be an integer.");
+        }
+        return (int) value;
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "No such resource.");
+        }
+    }
+
+    private static int parseLimit(String value, int defaultLimit) {
+        if (value == null || value.isEmpty()) {
+            return defaultLimit;
+        }
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit > 0 && limit <= 1000) {
+                return limit;
+            }
+        } catch (NumberFormatException e) {
+            //-> Reported below
+        }
+        throw new ApiException(400, "Parameter 'limit' must be between 1 and 1000.");
+    }
+
+    //-> Response bodies
+    private static List<Object> products(List<Product> products) {
+        List<Object> json = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("productId", product.getProductId());
+            fields.put("name", product.getName());
+            fields.put("price", product.getPrice());
+            fields.put("description", product.getDescription());
+            fields.put("stockQuantity", product.getStockQuantity());
+            json.add(fields);
+        }
+        return json;
+    }
+
+    private static Map<String, Object> order(OrderDetails order) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("orderId", order.getOrderId());
+        fields.put("customerId", order.getCustomerId());
+        fields.put("orderDate", order.getOrderDate() == null ? null : order.getOrderDate().toInstant().toString());
+        fields.put("totalPrice", order.getTotalPrice());
+        fields.put("shippingAddress", order.getShippingAddress());
+        List<Object> items = new ArrayList<>();
+        for (Map.Entry<Product, Integer> entry : order.getItems().entrySet()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", entry.getKey().getProductId());
+            item.put("name", entry.getKey().getName());
+            item.put("price", entry.getKey().getPrice());
+            item.put("quantity", entry.getValue());
+            items.add(item);
+        }
+        fields.put("items", items);
+        return fields;
+    }
+
+    private static Map<String, Object> object(String field, Object value) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put(field, value);
+        return json;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return object("error", message);
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final Object body;
+
+        private Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    //-> Ends the exchange with the given status and a {"error": message} body
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
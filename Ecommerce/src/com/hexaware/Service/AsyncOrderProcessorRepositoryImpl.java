@@ -0,0 +1,193 @@
+package com.hexaware.Service;
+
+import com.hexaware.Dao.AsyncOrderProcessorRepository;
+import com.hexaware.Dao.BulkImportListener;
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Page;
+import com.hexaware.Entity.Product;
+import com.hexaware.Util.DBPropertyUtil;
+import com.hexaware.Util.ThreadUtil;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+public class AsyncOrderProcessorRepositoryImpl implements AsyncOrderProcessorRepository {
+    private static final int DEFAULT_MAX_QUEUED = 1000;
+
+    private final OrderProcessorRepository repository;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public AsyncOrderProcessorRepositoryImpl() {
+        //-> By default no more calls in flight than the pool has connections, the rest wait on a cheap virtual thread
+        this(new OrderProcessorRepositoryImpl(), DBPropertyUtil.getInt(DBPropertyUtil.getProperties("db.properties"),
+                "async.maxConcurrency", DBPropertyUtil.getPoolConfig("db.properties").getMaxSize()),
+                DBPropertyUtil.getInt(DBPropertyUtil.getProperties("db.properties"), "async.maxQueued", DEFAULT_MAX_QUEUED));
+    }
+
+    public AsyncOrderProcessorRepositoryImpl(OrderProcessorRepository repository, int maxConcurrency) {
+        this(repository, maxConcurrency, DEFAULT_MAX_QUEUED);
+    }
+
+    //-> maxQueued only applies before Java 21: calls wait in a bounded queue for one of maxConcurrency platform threads
+    //-> and fail with RejectedExecutionException once it is full
+    public AsyncOrderProcessorRepositoryImpl(OrderProcessorRepository repository, int maxConcurrency, int maxQueued) {
+        this.repository = repository;
+        this.executor = ThreadUtil.newVirtualThreadExecutor("async-repository", maxConcurrency, maxQueued);
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createProduct(Product product) {
+        return submit(() -> repository.createProduct(product));
+    }
+
+    //-> The iterator is drained on the worker thread and must not be touched until the future completes
+    @Override
+    public CompletableFuture<Long> createProducts(Iterator<Product> products) {
+        return submit(() -> repository.createProducts(products));
+    }
+
+    @Override
+    public CompletableFuture<Long> createProducts(Iterator<Product> products, int batchSize, int commitSize, BulkImportListener listener) {
+        return submit(() -> repository.createProducts(products, batchSize, commitSize, listener));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createCustomer(Customer customer) {
+        return submit(() -> repository.createCustomer(customer));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteProduct(int productId) {
+        return submit(() -> repository.deleteProduct(productId));
+    }
+
+    @Override
+    public CompletableFuture<List<Product>> searchProducts(String query, int limit) {
+        return submit(() -> repository.searchProducts(query, limit));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteCustomer(int customerId) {
+        return submit(() -> repository.deleteCustomer(customerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addToCart(Customer customer, Product product, int quantity) {
+        return submit(() -> repository.addToCart(customer, product, quantity));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeFromCart(Customer customer, Product product) {
+        return submit(() -> repository.removeFromCart(customer, product));
+    }
+
+    @Override
+    public CompletableFuture<List<Product>> getAllFromCart(Customer customer) {
+        return submit(() -> repository.getAllFromCart(customer));
+    }
+
+    @Override
+    public CompletableFuture<Page<Product>> getCartPage(Customer customer, String cursor, int pageSize) {
+        return submit(() -> repository.getCartPage(customer, cursor, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachInCart(Customer customer, Consumer<Product> consumer) {
+        return submit(() -> {
+            repository.forEachInCart(customer, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> placeOrder(Customer customer, List<Map<Product, Integer>> productsWithQuantities, String shippingAddress) {
+        return submit(() -> repository.placeOrder(customer, productsWithQuantities, shippingAddress));
+    }
+
+    //-> The arrays must not be changed until the future completes
+    @Override
+    public CompletableFuture<Boolean> placeOrder(int customerId, int[] productIds, int[] quantities, String shippingAddress) {
+        return submit(() -> repository.placeOrder(customerId, productIds, quantities, shippingAddress));
+    }
+
+    //-> lines must not be reused until the future completes
+    @Override
+    public CompletableFuture<Boolean> placeOrder(int customerId, OrderLines lines, String shippingAddress) {
+        return submit(() -> repository.placeOrder(customerId, lines, shippingAddress));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<Product, Integer>>> getOrdersByCustomer(int customerId) {
+        return submit(() -> repository.getOrdersByCustomer(customerId));
+    }
+
+    @Override
+    public CompletableFuture<List<OrderDetails>> getOrderHistory(int customerId) {
+        return submit(() -> repository.getOrderHistory(customerId));
+    }
+
+    @Override
+    public CompletableFuture<Page<OrderDetails>> getOrderHistoryPage(int customerId, String cursor, int pageSize) {
+        return submit(() -> repository.getOrderHistoryPage(customerId, cursor, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachOrder(int customerId, Consumer<OrderDetails> consumer) {
+        return submit(() -> {
+            repository.forEachOrder(customerId, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    //-> Runs the blocking call on its own (virtual) thread, checked exceptions fail the future with the original exception
+    private <T> CompletableFuture<T> submit(RepositoryCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                //-> The caller gave up (cancelled or timed out) while this call was queued, don't spend a connection on it
+                if (future.isDone()) {
+                    permits.release();
+                    return;
+                }
+                try {
+                    future.complete(call.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @FunctionalInterface
+    private interface RepositoryCall<T> {
+        T call() throws Exception;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,430 @@
+package com.hexaware.Service;
+
+import com.hexaware.Entity.Product;
+import com.hexaware.Util.ThreadUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+//-> The product catalog as a memory-mapped file, so a restarted node answers product lookups (and rebuilds its
+//-> search index) from local disk instead of the database.
+//-> The file is a header, fixed-size records sorted by product id and a heap of UTF-8 names and descriptions.
+//-> A background task rescans products into a new file and swaps it in; products has no change column,
+//-> so the "delta" is found by comparing the old and new record lists. Stock in the file is only as fresh as the last scan.
+//-> Each scan is written to the next generation file (<file>.<n>) rather than over the mapped one, since Windows
+//-> refuses to replace or delete a file that is still mapped; older generations are deleted when that succeeds.
+public class CatalogSnapshot implements AutoCloseable {
+    private static final int MAGIC = 0x43415431; //-> "CAT1"
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    //-> Told about products that appeared in or disappeared from the catalog between two snapshots
+    public interface ChangeListener {
+        void added(int productId, String name, String description);
+
+        void removed(int productId, String name, String description);
+    }
+
+    private final DataSource dataSource;
+    private final Path file;
+    private final int fetchSize;
+    private final AtomicLong changeSequence = new AtomicLong();
+    //-> Products this node deleted after the current file was scanned, with the sequence of the delete
+    private final Map<Integer, Long> deleted = new ConcurrentHashMap<>();
+    private volatile MappedCatalog current;
+    //-> Highest generation on disk, readable or not, so the next write never reuses a name
+    private long lastGeneration;
+    private ScheduledExecutorService writer;
+
+    public CatalogSnapshot(DataSource dataSource, Path file, int fetchSize) {
+        this.dataSource = dataSource;
+        this.file = file;
+        this.fetchSize = fetchSize;
+    }
+
+    //-> Maps the newest readable generation a previous run left behind, false when there is none
+    public synchronized boolean open() {
+        List<Long> generations;
+        try {
+            generations = generations();
+        } catch (IOException e) {
+            System.err.println("Ignoring catalog snapshots " + file + ".*: " + e.getMessage());
+            return false;
+        }
+        for (int i = generations.size() - 1; i >= 0; i--) {
+            Path path = generationFile(generations.get(i));
+            lastGeneration = Math.max(lastGeneration, generations.get(i));
+            try {
+                current = MappedCatalog.map(path);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Ignoring catalog snapshot " + path + ": " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    //-> Catches up with the database right away in the background, then rewrites the file every intervalSeconds
+    public synchronized void start(long intervalSeconds, ChangeListener listener) {
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(ThreadUtil.daemonThreadFactory("catalog-snapshot"));
+            Runnable refresh = () -> {
+                try {
+                    refresh(listener);
+                } catch (SQLException | IOException e) {
+                    e.printStackTrace();
+                }
+            };
+            if (intervalSeconds > 0) {
+                writer.scheduleWithFixedDelay(refresh, 0, intervalSeconds, TimeUnit.SECONDS);
+            } else {
+                writer.execute(refresh);
+            }
+        }
+    }
+
+    //-> Null when the product is not in the snapshot (or was deleted since); the caller then asks the database
+    public Product get(int productId) {
+        MappedCatalog catalog = current;
+        if (catalog == null || deleted.containsKey(productId)) {
+            return null;
+        }
+        int index = catalog.indexOf(productId);
+        return index < 0 ? null : catalog.product(index);
+    }
+
+    public void forget(int productId) {
+        deleted.put(productId, changeSequence.incrementAndGet());
+    }
+
+    public boolean isLoaded() {
+        return current != null;
+    }
+
+    public int size() {
+        MappedCatalog catalog = current;
+        return catalog == null ? 0 : catalog.count;
+    }
+
+    //-> Reports every product in the snapshot as added, in id order
+    public void forEach(ChangeListener listener) {
+        MappedCatalog catalog = current;
+        if (catalog == null) {
+            return;
+        }
+        for (int i = 0; i < catalog.count; i++) {
+            if (!deleted.containsKey(catalog.id(i))) {
+                listener.added(catalog.id(i), catalog.name(i), catalog.description(i));
+            }
+        }
+    }
+
+    //-> Scans products into a new file, swaps it in and reports the differences to listener (may be null)
+    public synchronized void refresh(ChangeListener listener) throws SQLException, IOException {
+        long scanStart = changeSequence.get();
+        long generation = lastGeneration + 1;
+        Path target = generationFile(generation);
+        Path temp = file.resolveSibling(target.getFileName() + ".tmp");
+        write(temp);
+        //-> The target name is new, so nothing mapped is replaced
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target);
+        }
+        lastGeneration = generation;
+
+        MappedCatalog previous = current;
+        MappedCatalog next = MappedCatalog.map(target);
+        current = next;
+        deleteGenerationsBefore(generation);
+        //-> Deletes from before the scan are in the new file already, later ones must keep hiding their product
+        deleted.values().removeIf(sequence -> sequence <= scanStart);
+
+        if (previous != null && listener != null) {
+            diff(previous, next, listener);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            writer.shutdownNow();
+            writer = null;
+        }
+    }
+
+    //-> Helper methods
+    private void write(Path target) throws SQLException, IOException {
+        String sql = "SELECT product_id, product_name, price, description, stockQuantity FROM products ORDER BY product_id";
+        int count = 0;
+        int[] ids = new int[1024];
+        int[] stocks = new int[1024];
+        double[] prices = new double[1024];
+        int[] nameOffsets = new int[1024];
+        int[] nameLengths = new int[1024];
+        int[] descriptionOffsets = new int[1024];
+        int[] descriptionLengths = new int[1024];
+        Heap heap = new Heap();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (count == ids.length) {
+                        int capacity = count * 2;
+                        ids = Arrays.copyOf(ids, capacity);
+                        stocks = Arrays.copyOf(stocks, capacity);
+                        prices = Arrays.copyOf(prices, capacity);
+                        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+                        nameLengths = Arrays.copyOf(nameLengths, capacity);
+                        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+                        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+                    }
+                    ids[count] = resultSet.getInt("product_id");
+                    stocks[count] = resultSet.getInt("stockQuantity");
+                    prices[count] = resultSet.getDouble("price");
+                    nameOffsets[count] = heap.size();
+                    nameLengths[count] = writeString(heap, resultSet.getString("product_name"));
+                    descriptionOffsets[count] = heap.size();
+                    descriptionLengths[count] = writeString(heap, resultSet.getString("description"));
+                    count++;
+                }
+            }
+        }
+
+        long heapStart = HEADER_BYTES + (long) count * RECORD_BYTES;
+        long size = heapStart + heap.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog of " + count + " products is too large for one mapped file.");
+        }
+        //-> Written through the channel rather than a mapping, so the file is not mapped while it is renamed,
+        //-> and a buffer at a time so a large catalog is never held twice in memory
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            buffer.putInt(MAGIC);
+            buffer.putInt(count);
+            buffer.putInt((int) heapStart);
+            buffer.putInt(heap.size());
+            buffer.putLong(System.currentTimeMillis());
+            buffer.putLong(0);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < RECORD_BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(ids[i]);
+                buffer.putInt(stocks[i]);
+                buffer.putDouble(prices[i]);
+                buffer.putInt(nameOffsets[i]);
+                buffer.putInt(nameLengths[i]);
+                buffer.putInt(descriptionOffsets[i]);
+                buffer.putInt(descriptionLengths[i]);
+            }
+            heap.copyTo(channel, buffer);
+            drain(channel, buffer);
+            channel.force(true);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private Path generationFile(long generation) {
+        return file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    //-> Generation numbers of the snapshot files next to file, ascending; temp files and other names are skipped
+    private List<Long> generations() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        String prefix = file.getFileName() + ".";
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path path : stream) {
+                String suffix = path.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit) && suffix.length() < 19) {
+                    generations.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    //-> Best effort: a generation still mapped by this or another process stays until a later refresh manages it
+    private void deleteGenerationsBefore(long generation) {
+        try {
+            for (long older : generations()) {
+                if (older >= generation) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(generationFile(older));
+                } catch (IOException e) {
+                    //-> Retried after the next scan
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list catalog snapshots " + file + ".*: " + e.getMessage());
+        }
+    }
+
+    //-> Both catalogs are sorted by id, so one merge walk finds what was added and removed
+    private static void diff(MappedCatalog previous, MappedCatalog next, ChangeListener listener) {
+        int i = 0;
+        int j = 0;
+        while (i < previous.count || j < next.count) {
+            int oldId = i < previous.count ? previous.id(i) : Integer.MAX_VALUE;
+            int newId = j < next.count ? next.id(j) : Integer.MAX_VALUE;
+            if (oldId == newId) {
+                i++;
+                j++;
+            } else if (oldId < newId) {
+                listener.removed(oldId, previous.name(i), previous.description(i));
+                i++;
+            } else {
+                listener.added(newId, next.name(j), next.description(j));
+                j++;
+            }
+        }
+    }
+
+    //-> Returns the length written, -1 stands for NULL
+    private static int writeString(ByteArrayOutputStream heap, String value) {
+        if (value == null) {
+            return -1;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        heap.write(bytes, 0, bytes.length);
+        return bytes.length;
+    }
+
+    //-> Names and descriptions of one scan; copied to the file straight from the stream's array, not via toByteArray()
+    private static class Heap extends ByteArrayOutputStream {
+        private void copyTo(FileChannel channel, ByteBuffer buffer) throws IOException {
+            int offset = 0;
+            while (offset < count) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                int length = Math.min(buffer.remaining(), count - offset);
+                buffer.put(buf, offset, length);
+                offset += length;
+            }
+        }
+    }
+
+    //-> Read-only view of one snapshot file; the mapping stays valid after the file is replaced
+    private static class MappedCatalog {
+        private final ByteBuffer buffer;
+        private final int count;
+        private final int heapStart;
+
+        private MappedCatalog(ByteBuffer buffer, int count, int heapStart) {
+            this.buffer = buffer;
+            this.count = count;
+            this.heapStart = heapStart;
+        }
+
+        private static MappedCatalog map(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("unexpected size " + size);
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                int count = buffer.getInt(4);
+                int heapStart = buffer.getInt(8);
+                int heapSize = buffer.getInt(12);
+                if (buffer.getInt(0) != MAGIC || count < 0 || heapStart != HEADER_BYTES + (long) count * RECORD_BYTES
+                        || (long) heapStart + heapSize != size) {
+                    throw new IllegalStateException("not a catalog snapshot or truncated");
+                }
+                return new MappedCatalog(buffer, count, heapStart);
+            }
+        }
+
+        private int indexOf(int productId) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int id = id(mid);
+                if (id < productId) {
+                    low = mid + 1;
+                } else if (id > productId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int id(int index) {
+            return buffer.getInt(record(index));
+        }
+
+        private Product product(int index) {
+            int record = record(index);
+            return new Product(buffer.getInt(record), name(index), buffer.getDouble(record + 8), description(index),
+                    buffer.getInt(record + 4));
+        }
+
+        private String name(int index) {
+            int record = record(index);
+            return string(buffer.getInt(record + 16), buffer.getInt(record + 20));
+        }
+
+        private String description(int index) {
+            int record = record(index);
+            return string(buffer.getInt(record + 24), buffer.getInt(record + 28));
+        }
+
+        private int record(int index) {
+            return HEADER_BYTES + index * RECORD_BYTES;
+        }
+
+        //-> Absolute reads on a duplicate, the shared buffer's position is never touched
+        private String string(int offset, int length) {
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.duplicate().position(heapStart + offset).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
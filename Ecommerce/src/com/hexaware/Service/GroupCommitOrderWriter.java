@@ -0,0 +1,173 @@
+package com.hexaware.Service;
+
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Util.ThreadUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+//-> Queues concurrent checkouts and writes up to maxBatch of them (or whatever arrives within maxDelayMillis)
+//-> in one transaction. Each order runs under its own savepoint, so a rejected or failing order is rolled
+//-> back alone and only its caller sees the error.
+public class GroupCommitOrderWriter implements AutoCloseable {
+    private final DataSource dataSource;
+    private final OrderWriter orderWriter;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public GroupCommitOrderWriter(DataSource dataSource, OrderWriter orderWriter, int maxBatch, long maxDelayMillis) {
+        this.dataSource = dataSource;
+        this.orderWriter = orderWriter;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.writer = ThreadUtil.daemonThreadFactory("order-group-commit").newThread(this::run);
+        this.writer.start();
+    }
+
+    //-> Blocks until the batch holding this order has been committed or the order was rejected
+    public void write(PendingOrder order) throws ProductNotFoundException, SQLException {
+        queue.add(order);
+        if (!running && queue.remove(order)) {
+            throw new SQLException("Group commit writer is closed.");
+        }
+
+        try {
+            order.getResult().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ProductNotFoundException) {
+                throw (ProductNotFoundException) cause;
+            }
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    //-> Stops taking orders, lets the writer commit what is already queued
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //-> Helper methods
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+
+                //-> Give other callers up to maxDelay to join, but never hold back a full batch
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                //-> Keep the writer alive, callers of this batch are failed below
+                e.printStackTrace();
+            } finally {
+                for (PendingOrder order : batch) {
+                    order.getResult().completeExceptionally(new SQLException("Order was not written."));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        List<PendingOrder> written = new ArrayList<>(batch.size());
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+
+            for (PendingOrder order : batch) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    int rejectedLine = orderWriter.writeRows(connection, order);
+                    if (rejectedLine < 0) {
+                        written.add(order);
+                        continue;
+                    }
+                    connection.rollback(savepoint);
+                    orderWriter.throwRejection(connection, order, rejectedLine);
+                } catch (SQLException | ProductNotFoundException | RuntimeException e) {
+                    order.getResult().completeExceptionally(e);
+                    //-> Deadlocks and lock timeouts (SQLState 40xxx) may have undone the whole transaction,
+                    //-> and a savepoint that no longer exists fails the same way: the batch as a whole fails
+                    if (e instanceof SQLException && String.valueOf(((SQLException) e).getSQLState()).startsWith("40")) {
+                        throw (SQLException) e;
+                    }
+                    connection.rollback(savepoint);
+                }
+            }
+
+            for (PendingOrder order : written) {
+                order.setCommitting(true);
+            }
+            connection.commit();
+            for (PendingOrder order : written) {
+                order.getResult().complete(null);
+            }
+        } catch (SQLException e) {
+            //-> Nothing in the batch was written (or it is unknown, see PendingOrder.isCommitting)
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            for (PendingOrder order : batch) {
+                order.getResult().completeExceptionally(e);
+            }
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.setAutoCommit(true);
+                    connection.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
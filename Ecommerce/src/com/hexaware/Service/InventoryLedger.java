@@ -0,0 +1,220 @@
+package com.hexaware.Service;
+
+import com.hexaware.Util.ThreadUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import javax.sql.DataSource;
+
+//-> Available stock per product held in memory, reserved with CAS at checkout.
+//-> Checkouts append to stock_ledger in their own transaction and a background task folds the
+//-> ledger into products.stockQuantity, so the products row is no longer written by every order.
+//-> Assumes this process is the only one placing orders against the database.
+public class InventoryLedger implements AutoCloseable {
+    private final DataSource dataSource;
+    private final int reconcileBatchSize;
+    private final IntConsumer onReconciled;
+    private final Map<Integer, AtomicInteger> available = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reconciler;
+
+    public InventoryLedger(DataSource dataSource, int reconcileBatchSize, IntConsumer onReconciled) {
+        this.dataSource = dataSource;
+        this.reconcileBatchSize = Math.max(1, reconcileBatchSize);
+        this.onReconciled = onReconciled;
+    }
+
+    //-> Applies whatever a previous run left in the ledger, then keeps reconciling every intervalMillis
+    public synchronized void start(long intervalMillis) {
+        reconcileAll();
+        if (reconciler == null && intervalMillis > 0) {
+            reconciler = Executors.newSingleThreadScheduledExecutor(ThreadUtil.daemonThreadFactory("inventory-reconciler"));
+            reconciler.scheduleWithFixedDelay(this::reconcileAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    //-> Reserves every line or none, returns -1 on success or the index of the first line that could not be reserved
+    public int reserve(int[] productIds, int[] quantities) throws SQLException {
+        for (int i = 0; i < productIds.length; i++) {
+            AtomicInteger counter = counter(productIds[i]);
+            if (counter == null || !tryTake(counter, quantities[i])) {
+                release(productIds, quantities, i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //-> Gives back the first lineCount lines of a reservation whose order was not written
+    public void release(int[] productIds, int[] quantities, int lineCount) {
+        for (int i = 0; i < lineCount; i++) {
+            AtomicInteger counter = available.get(productIds[i]);
+            if (counter != null) {
+                counter.addAndGet(quantities[i]);
+            }
+        }
+    }
+
+    //-> Takes the lines even past zero, for orders already promised elsewhere (the order journal's unapplied tail)
+    public void hold(int[] productIds, int[] quantities) throws SQLException {
+        for (int i = 0; i < productIds.length; i++) {
+            AtomicInteger counter = counter(productIds[i]);
+            if (counter != null) {
+                counter.addAndGet(-quantities[i]);
+            }
+        }
+    }
+
+    //-> Writes the reserved lines to the ledger inside the caller's transaction
+    public void record(Connection connection, int[] productIds, int[] quantities) throws SQLException {
+        String sql = "INSERT INTO stock_ledger (product_id, quantity) VALUES (?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < productIds.length; i++) {
+                statement.setInt(1, productIds[i]);
+                statement.setInt(2, quantities[i]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    //-> Drops the counter of a deleted product
+    public void forget(int productId) {
+        available.remove(productId);
+    }
+
+    //-> Units still available for a product, -1 when it is not tracked yet
+    public int getAvailable(int productId) {
+        AtomicInteger counter = available.get(productId);
+        return counter == null ? -1 : counter.get();
+    }
+
+    //-> Folds up to reconcileBatchSize ledger rows into products, returns the number of rows applied
+    public int reconcile() throws SQLException {
+        String selectSql = "SELECT ledger_id, product_id, quantity FROM stock_ledger ORDER BY ledger_id LIMIT ? FOR UPDATE";
+        String updateSql = "UPDATE products SET stockQuantity = GREATEST(stockQuantity - ?, 0) WHERE product_id = ?";
+        String deleteSql = "DELETE FROM stock_ledger WHERE ledger_id <= ?";
+
+        //-> The pool rolls back and restores auto-commit on close
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                //-> Rows are locked as they are read, so the delete below removes exactly what was summed
+                Map<Integer, Integer> decrements = new HashMap<>();
+                long lastLedgerId = 0;
+                int rows = 0;
+                try (PreparedStatement statement = connection.prepareStatement(selectSql)) {
+                    statement.setInt(1, reconcileBatchSize);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            lastLedgerId = resultSet.getLong("ledger_id");
+                            decrements.merge(resultSet.getInt("product_id"), resultSet.getInt("quantity"), Integer::sum);
+                            rows++;
+                        }
+                    }
+                }
+                if (rows == 0) {
+                    connection.commit();
+                    return 0;
+                }
+
+                //-> The in-memory counters never hand out more than was in stock, GREATEST only guards against outside edits
+                try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+                    for (Map.Entry<Integer, Integer> entry : decrements.entrySet()) {
+                        statement.setInt(1, entry.getValue());
+                        statement.setInt(2, entry.getKey());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+                try (PreparedStatement statement = connection.prepareStatement(deleteSql)) {
+                    statement.setLong(1, lastLedgerId);
+                    statement.executeUpdate();
+                }
+                connection.commit();
+
+                if (onReconciled != null) {
+                    decrements.keySet().forEach(onReconciled::accept);
+                }
+                return rows;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reconciler != null) {
+            reconciler.shutdown();
+            try {
+                reconciler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reconciler = null;
+        }
+        reconcileAll();
+    }
+
+    //-> Helper methods
+    private void reconcileAll() {
+        try {
+            while (reconcile() == reconcileBatchSize) {
+                //-> Keep going until the ledger is drained
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    //-> Loaded on first use as the stored stock minus whatever is still waiting in the ledger
+    private AtomicInteger counter(int productId) throws SQLException {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+
+        String sql = "SELECT p.stockQuantity - COALESCE((SELECT SUM(l.quantity) FROM stock_ledger l WHERE l.product_id = p.product_id), 0) " +
+                     "FROM products p WHERE p.product_id = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, productId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                int stock = Math.max(0, resultSet.getInt(1));
+                //-> A concurrent loader may have won, its counter is the one reservations already use
+                return available.computeIfAbsent(productId, id -> new AtomicInteger(stock));
+            }
+        }
+    }
+}
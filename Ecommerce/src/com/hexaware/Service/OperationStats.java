@@ -0,0 +1,131 @@
+package com.hexaware.Service;
+
+import com.hexaware.Util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationStats implements OperationStatsMXBean {
+    private final String operation;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder sqlErrors = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public OperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    //-> thrown: the call ended with an exception, failed: a boolean operation returned false
+    public void record(long nanos, boolean thrown, boolean failed, long statementCount, long roundTripCount, long sqlErrorCount) {
+        calls.increment();
+        latency.record(nanos);
+        if (thrown) {
+            errors.increment();
+        }
+        if (failed) {
+            failures.increment();
+        }
+        if (statementCount > 0) {
+            statements.add(statementCount);
+        }
+        if (roundTripCount > 0) {
+            roundTrips.add(roundTripCount);
+        }
+        if (sqlErrorCount > 0) {
+            sqlErrors.add(sqlErrorCount);
+        }
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getSqlErrors() {
+        return sqlErrors.sum();
+    }
+
+    @Override
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    @Override
+    public long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    @Override
+    public double getStatementsPerCall() {
+        long count = calls.sum();
+        return count == 0 ? 0.0 : (double) statements.sum() / count;
+    }
+
+    @Override
+    public double getRoundTripsPerCall() {
+        long count = calls.sum();
+        return count == 0 ? 0.0 : (double) roundTrips.sum() / count;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMeanNanos() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.getPercentileNanos(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getPercentileNanos(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.getPercentileNanos(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMaxNanos() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        failures.reset();
+        sqlErrors.reset();
+        statements.reset();
+        roundTrips.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s calls=%d errors=%d failures=%d sqlErrors=%d stmts/call=%.2f trips/call=%.2f " +
+                "mean=%.1fus p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+                operation, getCalls(), getErrors(), getFailures(), getSqlErrors(), getStatementsPerCall(),
+                getRoundTripsPerCall(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+}
\ No newline at end of file
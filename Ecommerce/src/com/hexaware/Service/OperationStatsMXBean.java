@@ -0,0 +1,33 @@
+package com.hexaware.Service;
+
+//-> JMX view of one repository operation, registered as com.hexaware:type=RepositoryMetrics,operation=<method>
+public interface OperationStatsMXBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getFailures();
+
+    long getSqlErrors();
+
+    long getStatements();
+
+    long getRoundTrips();
+
+    double getStatementsPerCall();
+
+    double getRoundTripsPerCall();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
\ No newline at end of file
@@ -0,0 +1,648 @@
+package com.hexaware.Service;
+
+import com.hexaware.Exception.ProductNotFoundException;
+import com.hexaware.Util.ThreadUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import javax.sql.DataSource;
+
+//-> Write-ahead log for checkouts: an order is acknowledged once it is forced to a memory-mapped segment file on local
+//-> disk, and a background applier writes the journaled orders to the database one by one, in journal order.
+//-> A record is [payload length][CRC32C of payload][payload]; a zero length ends the segment (or the journal), and a
+//-> negated length marks a record whose force failed, so it was never acknowledged and is skipped.
+//-> The applier's position is kept in a checkpoint file. Replay after a crash starts there and skips orders whose id is
+//-> already in orders, so the checkpoint may lag and is written without fsync.
+//-> Stock is promised by the inventory ledger before the order is journaled; appends wait (then fail) when more
+//-> than maxPendingBytes are journaled but not yet applied.
+public class OrderJournal implements AutoCloseable {
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String REJECTED_FILE = "rejected.log";
+    private static final int CHECKPOINT_EVERY_ORDERS = 100;
+    private static final long CHECKPOINT_EVERY_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final OrderWriter orderWriter;
+    private final InventoryLedger inventoryLedger;
+    private final Consumer<PendingOrder> onApplied;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxPendingBytes;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition applied = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Object syncLock = new Object();
+    private final AtomicLong appliedOrders = new AtomicLong();
+    private final AtomicLong rejectedOrders = new AtomicLong();
+    //-> Orders open() found after the checkpoint and held stock for; only their hold is given back if already applied
+    private final Set<Integer> recoveredOrders = ConcurrentHashMap.newKeySet();
+
+    //-> Append side, guarded by lock
+    private long appendSegment;
+    private int appendOffset;
+    private volatile MappedByteBuffer appendBuffer;
+
+    //-> Positions are segment * segmentBytes + offset, so they compare across segments
+    private volatile long writtenPosition;
+    private volatile long syncedPosition;
+    private volatile long appliedPosition;
+    private long oldestSegment;
+    private volatile boolean running;
+    private Thread applier;
+
+    //-> inventoryLedger gets the reservations of replayed orders back; it may be null when stock is checked at apply time.
+    //-> onApplied (may be null) runs on the applier thread once an order is in the database
+    public OrderJournal(DataSource dataSource, OrderWriter orderWriter, InventoryLedger inventoryLedger,
+                        Consumer<PendingOrder> onApplied, Path directory, int segmentBytes, long maxPendingBytes, long maxWaitMillis) {
+        this.dataSource = dataSource;
+        this.orderWriter = orderWriter;
+        this.inventoryLedger = inventoryLedger;
+        this.onApplied = onApplied;
+        this.directory = directory;
+        this.segmentBytes = Math.max(4096, segmentBytes);
+        this.maxPendingBytes = Math.max(1, maxPendingBytes);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+    }
+
+    //-> Recovers the journal a previous run left: finds the end of the last complete record, drops a torn tail and
+    //-> holds the stock of every order after the checkpoint, since the database has not (or not surely) seen them
+    public synchronized void open() throws IOException, SQLException {
+        Files.createDirectories(directory);
+        long segment = 0;
+        int offset = 0;
+        try {
+            String[] checkpoint = Files.readString(directory.resolve(CHECKPOINT_FILE), StandardCharsets.UTF_8).trim().split("\\s+");
+            segment = Long.parseLong(checkpoint[0]);
+            offset = Integer.parseInt(checkpoint[1]);
+        } catch (NoSuchFileException e) {
+            segment = firstSegment();
+        } catch (RuntimeException e) {
+            throw new IOException("Unreadable order journal checkpoint in " + directory, e);
+        }
+        deleteSegmentsBefore(segment);
+        //-> Segments that could not be deleted are tried again at the next checkpoint
+        oldestSegment = Math.min(segment, firstSegment());
+        appliedPosition = position(segment, offset);
+
+        int pending = 0;
+        MappedByteBuffer buffer = map(segment);
+        while (true) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                if (!Files.exists(segmentPath(segment + 1))) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                buffer = map(segment);
+                continue;
+            }
+            PendingOrder order = readRecord(buffer, offset, Math.abs(length));
+            if (order != null && length < 0) {
+                //-> Voided: its caller was told the order failed and gave the stock back
+                offset += RECORD_HEADER_BYTES - length;
+                continue;
+            }
+            if (order == null) {
+                //-> Never acknowledged: a record is only acknowledged after the force that would have completed it
+                System.err.println("Order journal: discarding torn record at " + segmentPath(segment) + ":" + offset);
+                for (int i = offset; i < segmentBytes; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+                break;
+            }
+            if (inventoryLedger != null) {
+                inventoryLedger.hold(order.getProductIds(), order.getQuantities());
+            }
+            recoveredOrders.add(order.getOrderId());
+            pending++;
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        if (pending > 0) {
+            System.err.println("Order journal: " + pending + " orders to replay into the database.");
+        }
+
+        appendSegment = segment;
+        appendOffset = offset;
+        appendBuffer = buffer;
+        writtenPosition = position(segment, offset);
+        syncedPosition = writtenPosition;
+        running = true;
+    }
+
+    //-> Starts the applier on the records after the checkpoint
+    public synchronized void start() {
+        if (applier == null) {
+            applier = ThreadUtil.daemonThreadFactory("order-journal").newThread(this::run);
+            applier.start();
+        }
+    }
+
+    //-> Returns once the order is on disk. Waits up to maxWaitMillis for the applier when the journal is full
+    public void append(PendingOrder order) throws IOException {
+        byte[] payload = encode(order);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        if (recordBytes + 4 > segmentBytes) {
+            throw new IOException("Order " + order.getOrderId() + " does not fit in a journal segment of " + segmentBytes + " bytes.");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        MappedByteBuffer buffer;
+        int offset;
+        long end;
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            while (running && writtenPosition - appliedPosition >= maxPendingBytes) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Order journal is full, the database is " + (writtenPosition - appliedPosition) + " bytes behind.");
+                }
+                try {
+                    applied.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for journal space.");
+                }
+            }
+            if (!running) {
+                throw new IOException("Order journal is closed.");
+            }
+
+            //-> Four bytes are always left for the zero length that sends readers on to the next segment
+            if (appendOffset + recordBytes + 4 > segmentBytes) {
+                roll();
+            }
+            buffer = appendBuffer;
+            offset = appendOffset;
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.put(offset + RECORD_HEADER_BYTES, payload);
+            //-> The length goes in last, until then the record reads as the end of the journal
+            buffer.putInt(offset, payload.length);
+            appendOffset += recordBytes;
+            end = position(appendSegment, appendOffset);
+            writtenPosition = end;
+        } finally {
+            lock.unlock();
+        }
+
+        //-> From here the order may survive a crash and be replayed, so its stock reservation has to stay taken
+        order.setCommitting(true);
+        try {
+            sync(end, buffer, offset, payload.length);
+        } catch (IOException e) {
+            //-> The record was voided before anyone could sync past it, so the caller may give the stock back
+            order.setCommitting(false);
+            throw e;
+        }
+    }
+
+    //-> Bytes journaled but not yet applied to the database
+    public long getPendingBytes() {
+        return writtenPosition - appliedPosition;
+    }
+
+    public long getAppliedCount() {
+        return appliedOrders.get();
+    }
+
+    //-> Orders the database refused after they were acknowledged, each one is logged to rejected.log
+    public long getRejectedCount() {
+        return rejectedOrders.get();
+    }
+
+    //-> Stops taking orders; the applier stops after the order in hand and what is left is replayed on the next open
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = applier;
+            applier = null;
+        }
+        stop();
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    //-> Helper methods
+    private void run() {
+        long segment = appliedPosition / segmentBytes;
+        int offset = (int) (appliedPosition % segmentBytes);
+        MappedByteBuffer buffer = null;
+        int sinceCheckpoint = 0;
+        long lastCheckpoint = System.nanoTime();
+
+        while (running) {
+            try {
+                if (buffer == null) {
+                    buffer = map(segment);
+                }
+                long position = position(segment, offset);
+                if (position >= syncedPosition) {
+                    if (sinceCheckpoint > 0) {
+                        writeCheckpoint(segment, offset);
+                        sinceCheckpoint = 0;
+                        lastCheckpoint = System.nanoTime();
+                    }
+                    awaitSynced(position);
+                    continue;
+                }
+
+                int length = buffer.getInt(offset);
+                if (length == 0) {
+                    //-> Synced data lies beyond this point, so the appender has moved on to the next segment
+                    segment++;
+                    offset = 0;
+                    buffer = map(segment);
+                    continue;
+                }
+                if (length < 0) {
+                    offset += RECORD_HEADER_BYTES - length;
+                    advance(position(segment, offset));
+                    continue;
+                }
+                PendingOrder order = readRecord(buffer, offset, length);
+                if (order == null) {
+                    throw new IOException("Corrupt order journal record at " + segmentPath(segment) + ":" + offset);
+                }
+                if (!apply(order)) {
+                    break;
+                }
+
+                offset += RECORD_HEADER_BYTES + length;
+                advance(position(segment, offset));
+                if (++sinceCheckpoint >= CHECKPOINT_EVERY_ORDERS || System.nanoTime() - lastCheckpoint >= CHECKPOINT_EVERY_NANOS) {
+                    writeCheckpoint(segment, offset);
+                    sinceCheckpoint = 0;
+                    lastCheckpoint = System.nanoTime();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                pause(MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+
+        try {
+            writeCheckpoint(segment, offset);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //-> True once the order is in the database or set aside as rejected, false when the journal closed while retrying
+    private boolean apply(PendingOrder order) {
+        long delay = 10;
+        while (running) {
+            try {
+                if (orderExists(order.getOrderId())) {
+                    //-> Applied before the last checkpoint was written: open() held its stock a second time, since the
+                    //-> ledger rows already count it. An order of this run (a commit that failed but landed) keeps its reservation
+                    if (recoveredOrders.remove(order.getOrderId()) && inventoryLedger != null) {
+                        inventoryLedger.release(order.getProductIds(), order.getQuantities(), order.getLineCount());
+                    }
+                } else {
+                    orderWriter.write(order);
+                    recoveredOrders.remove(order.getOrderId());
+                }
+                appliedOrders.incrementAndGet();
+                if (onApplied != null) {
+                    onApplied.accept(order);
+                }
+                return true;
+            } catch (ProductNotFoundException | IllegalArgumentException e) {
+                reject(order, e.getMessage());
+                return true;
+            } catch (SQLException e) {
+                //-> Integrity violations will not go away on retry (customer or product deleted since), anything else might
+                if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                    reject(order, e.getMessage());
+                    return true;
+                }
+                e.printStackTrace();
+                pause(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+        return false;
+    }
+
+    private boolean orderExists(int orderId) throws SQLException {
+        String sql = "SELECT 1 FROM orders WHERE order_id = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, orderId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private void reject(PendingOrder order, String reason) {
+        rejectedOrders.incrementAndGet();
+        recoveredOrders.remove(order.getOrderId());
+        if (inventoryLedger != null) {
+            inventoryLedger.release(order.getProductIds(), order.getQuantities(), order.getLineCount());
+        }
+
+        StringBuilder line = new StringBuilder();
+        line.append(new Timestamp(System.currentTimeMillis()))
+            .append(" order=").append(order.getOrderId())
+            .append(" customer=").append(order.getCustomerId())
+            .append(" lines=");
+        for (int i = 0; i < order.getLineCount(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(order.getProductIds()[i]).append('x').append(order.getQuantities()[i]);
+        }
+        line.append(" total=").append(order.getTotalPrice())
+            .append(" reason=").append(reason)
+            .append(System.lineSeparator());
+        System.err.print("Order journal: rejected " + line);
+        try {
+            Files.writeString(directory.resolve(REJECTED_FILE), line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //-> One force covers every record written so far, so appenders that arrive while it runs usually find theirs done.
+    //-> When the force fails, the caller's record (recordBuffer at recordOffset) is voided while syncLock is still held,
+    //-> so a later force by another appender cannot make it look acknowledged
+    private void sync(long end, MappedByteBuffer recordBuffer, int recordOffset, int payloadLength) throws IOException {
+        synchronized (syncLock) {
+            if (syncedPosition >= end) {
+                return;
+            }
+            //-> Read before the buffer: a segment is forced before the appender moves past it
+            long target = writtenPosition;
+            MappedByteBuffer buffer = appendBuffer;
+            try {
+                buffer.force();
+            } catch (UncheckedIOException e) {
+                recordBuffer.putInt(recordOffset, -payloadLength);
+                try {
+                    recordBuffer.force();
+                } catch (UncheckedIOException ex) {
+                    //-> The record may be on disk as written, and replay would apply an order reported as failed
+                    System.err.println("Order journal: cannot force " + directory + ", no more orders are taken: " + ex.getMessage());
+                    stop();
+                }
+                throw e.getCause();
+            }
+            syncedPosition = target;
+        }
+        lock.lock();
+        try {
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stop() {
+        lock.lock();
+        try {
+            running = false;
+            applied.signalAll();
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //-> Called with lock held
+    private void roll() throws IOException {
+        appendBuffer.force();
+        MappedByteBuffer next = map(appendSegment + 1);
+        appendSegment++;
+        appendOffset = 0;
+        appendBuffer = next;
+    }
+
+    private void advance(long position) {
+        lock.lock();
+        try {
+            appliedPosition = position;
+            applied.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitSynced(long position) {
+        lock.lock();
+        try {
+            if (running && syncedPosition <= position) {
+                synced.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //-> Written to a temp file and moved into place; older segments are deleted once it points past them.
+    //-> A delete that fails (Windows refuses while the file is still mapped) is retried at the next checkpoint
+    private void writeCheckpoint(long segment, int offset) throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, segment + " " + offset + System.lineSeparator(), StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        }
+        while (oldestSegment < segment) {
+            try {
+                Files.deleteIfExists(segmentPath(oldestSegment));
+            } catch (IOException e) {
+                break;
+            }
+            oldestSegment++;
+        }
+    }
+
+    private long firstSegment() throws IOException {
+        long first = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                long segment = segmentNumber(file);
+                if (segment >= 0 && (first < 0 || segment < first)) {
+                    first = segment;
+                }
+            }
+        }
+        return Math.max(0, first);
+    }
+
+    private void deleteSegmentsBefore(long segment) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                long number = segmentNumber(file);
+                if (number >= 0 && number < segment) {
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        System.err.println("Order journal: could not delete " + file + " yet: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    //-> A new segment is created at full size, the zero-filled space reads as "no more records"
+    private MappedByteBuffer map(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private long position(long segment, int offset) {
+        return segment * segmentBytes + offset;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] encode(PendingOrder order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + order.getLineCount() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(order.getOrderId());
+            out.writeInt(order.getCustomerId());
+            out.writeLong(order.getOrderDate().getTime());
+            out.writeDouble(order.getTotalPrice());
+            writeString(out, order.getShippingAddress());
+            out.writeInt(order.getLineCount());
+            for (int i = 0; i < order.getLineCount(); i++) {
+                out.writeInt(order.getProductIds()[i]);
+                out.writeInt(order.getQuantities()[i]);
+                out.writeDouble(order.getUnitPrices()[i]);
+                writeString(out, order.getProductNames()[i]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    //-> Null when the record is incomplete or its checksum does not match
+    private PendingOrder readRecord(ByteBuffer buffer, int offset, int length) {
+        if (length < 0 || (long) offset + RECORD_HEADER_BYTES + length > segmentBytes) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.duplicate().position(offset + RECORD_HEADER_BYTES).get(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return null;
+        }
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            int orderId = in.getInt();
+            int customerId = in.getInt();
+            Timestamp orderDate = new Timestamp(in.getLong());
+            double totalPrice = in.getDouble();
+            String shippingAddress = readString(in);
+            int lineCount = in.getInt();
+            int[] productIds = new int[lineCount];
+            int[] quantities = new int[lineCount];
+            double[] unitPrices = new double[lineCount];
+            String[] productNames = new String[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                productIds[i] = in.getInt();
+                quantities[i] = in.getInt();
+                unitPrices[i] = in.getDouble();
+                productNames[i] = readString(in);
+            }
+            return new PendingOrder(orderId, customerId, productIds, quantities, productNames, unitPrices,
+                    totalPrice, shippingAddress, orderDate);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    //-> Length -1 stands for NULL
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,45 +1,230 @@
 package com.hexaware.Service;
 
+import com.hexaware.Dao.BulkImportListener;
 import com.hexaware.Dao.OrderProcessorRepository;
 import com.hexaware.Entity.Customer;
+import com.hexaware.Entity.OrderDetails;
+import com.hexaware.Entity.OrderLines;
+import com.hexaware.Entity.Page;
 import com.hexaware.Entity.Product;
 import com.hexaware.Exception.CustomerNotFoundException;
 import com.hexaware.Exception.OrderNotFoundException;
 import com.hexaware.Exception.ProductNotFoundException;
-import com.hexaware.Util.DBConnUtil;
+import com.hexaware.Util.ConnectionPool;
+import com.hexaware.Util.CursorUtil;
 import com.hexaware.Util.DBPropertyUtil;
+import com.hexaware.Util.HiLoIdAllocator;
+import com.hexaware.Util.PoolConfig;
+import com.hexaware.Util.PoolStats;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
 
 public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
-    private Connection connection;
+    //-> MySQL allows at most 65535 placeholders per statement, a product row uses four
+    private static final int MAX_IMPORT_ROWS_PER_STATEMENT = 65535 / 4;
+    //-> Product ids per IN list when pricing order lines that missed the cache
+    private static final int MAX_PRICE_LOOKUP_IDS = 500;
+    
+    //-> Read-model queries: one primary key range scan on (customer_id, order_id, line_no), columns named as readOrderHistory expects
+    private static final String HISTORY_COLUMNS = "h.order_id, h.customer_id, h.order_date, h.total_price, h.shipping_address, " +
+            "h.product_id, h.product_name, h.unit_price AS price, NULL AS description, NULL AS stockQuantity, h.quantity ";
+    private static final String HISTORY_SQL = "SELECT " + HISTORY_COLUMNS +
+            "FROM order_history_lines h WHERE h.customer_id = ? ORDER BY h.order_id, h.line_no";
+    private static final String HISTORY_PAGE_SQL = "SELECT " + HISTORY_COLUMNS +
+            "FROM (SELECT DISTINCT order_id FROM order_history_lines WHERE customer_id = ? AND order_id > ? ORDER BY order_id LIMIT ?) page " +
+            "JOIN order_history_lines h ON h.customer_id = ? AND h.order_id = page.order_id ORDER BY h.order_id, h.line_no";
+
+    private final DataSource dataSource;
+    private final ReadRouter readRouter;
+    private final LruCache<Integer, Product> productCache;
+    private final LruCache<Integer, Boolean> customerCache;
+    private final int importBatchSize;
+    private final int importCommitSize;
+    private final int fetchSize;
+    private final InventoryLedger inventoryLedger;
+    private final HiLoIdAllocator orderIds;
+    private final OrderWriter orderWriter;
+    private final GroupCommitOrderWriter groupCommitWriter;
+    private final OrderJournal orderJournal;
+    private final ProductSearchIndex searchIndex;
+    private final CatalogSnapshot catalogSnapshot;
+    private final int analyticsRefreshOverlap;
+    private final boolean historyReadModel;
 
     public OrderProcessorRepositoryImpl() {
-    	 try {
-             String connectionString = DBPropertyUtil.getConnectionString("db.properties");
-             this.connection = DBConnUtil.getDBConnection(connectionString);
-         } catch (SQLException e) {
-             e.printStackTrace();
-         }
+        this(new ConnectionPool(DBPropertyUtil.getPoolConfig("db.properties")), replicaPools("db.properties"),
+                DBPropertyUtil.getProperties("db.properties"));
+    }
+
+    public OrderProcessorRepositoryImpl(DataSource dataSource) {
+        this(dataSource, new Properties());
+    }
+
+    public OrderProcessorRepositoryImpl(DataSource dataSource, Properties properties) {
+        this(dataSource, Collections.emptyList(), properties);
+    }
+
+    //-> Writes and transactions always go to dataSource, customer and catalog reads to the replicas
+    public OrderProcessorRepositoryImpl(DataSource dataSource, List<DataSource> replicas, Properties properties) {
+        this.dataSource = dataSource;
+        this.readRouter = new ReadRouter(dataSource, replicas,
+                DBPropertyUtil.getLong(properties, "db.replica.stickinessMillis", 5000));
+        this.productCache = new LruCache<>(DBPropertyUtil.getInt(properties, "cache.product.maxSize", 10000),
+                DBPropertyUtil.getLong(properties, "cache.product.ttlMillis", 60000));
+        this.customerCache = new LruCache<>(DBPropertyUtil.getInt(properties, "cache.customer.maxSize", 50000),
+                DBPropertyUtil.getLong(properties, "cache.customer.ttlMillis", 60000));
+        this.importBatchSize = DBPropertyUtil.getInt(properties, "import.batchSize", 1000);
+        this.importCommitSize = DBPropertyUtil.getInt(properties, "import.commitSize", 10000);
+        this.fetchSize = DBPropertyUtil.getInt(properties, "db.fetchSize", 500);
+        this.analyticsRefreshOverlap = DBPropertyUtil.getInt(properties, "analytics.refreshOverlap", 1000);
+        this.orderIds = new HiLoIdAllocator(dataSource, "orders", "orders", "order_id",
+                DBPropertyUtil.getInt(properties, "ids.order.blockSize", 100));
+        
+        //-> Optional in-memory stock reservations, reconciled to products in the background
+        if (DBPropertyUtil.getBoolean(properties, "inventory.ledger.enabled", false)) {
+            this.inventoryLedger = new InventoryLedger(dataSource,
+                    DBPropertyUtil.getInt(properties, "inventory.ledger.reconcileBatchSize", 1000), productCache::invalidate);
+            this.inventoryLedger.start(DBPropertyUtil.getLong(properties, "inventory.ledger.reconcileIntervalMillis", 1000));
+        } else {
+            this.inventoryLedger = null;
+        }
+        
+        //-> Optional order_history_lines read model, written with each order and used for history reads
+        this.historyReadModel = DBPropertyUtil.getBoolean(properties, "orders.historyReadModel.enabled", false);
+        
+        //-> Optional group commit: concurrent checkouts share one transaction
+        this.orderWriter = new OrderWriter(dataSource, inventoryLedger, historyReadModel);
+        if (DBPropertyUtil.getBoolean(properties, "orders.groupCommit.enabled", false)) {
+            this.groupCommitWriter = new GroupCommitOrderWriter(dataSource, orderWriter,
+                    DBPropertyUtil.getInt(properties, "orders.groupCommit.maxBatch", 50),
+                    DBPropertyUtil.getLong(properties, "orders.groupCommit.maxDelayMillis", 2));
+        } else {
+            this.groupCommitWriter = null;
+        }
+        
+        //-> Optional order journal: checkouts are acknowledged from local disk and applied to the database in the background
+        if (DBPropertyUtil.getBoolean(properties, "orders.journal.enabled", false)) {
+            if (inventoryLedger == null) {
+                throw new IllegalStateException("orders.journal.enabled needs inventory.ledger.enabled, stock must be checked before an order is acknowledged.");
+            }
+            //-> Applied after the customer may have added to the cart again, so only the ordered products are cleared;
+            //-> read routing and the product cache follow once the order is in the database
+            this.orderJournal = new OrderJournal(dataSource, new OrderWriter(dataSource, inventoryLedger, historyReadModel, true),
+                    inventoryLedger, this::orderApplied,
+                    Paths.get(properties.getProperty("orders.journal.dir", "order-journal")),
+                    DBPropertyUtil.getInt(properties, "orders.journal.segmentBytes", 64 * 1024 * 1024),
+                    DBPropertyUtil.getLong(properties, "orders.journal.maxPendingBytes", 256L * 1024 * 1024),
+                    DBPropertyUtil.getLong(properties, "orders.journal.maxWaitMillis", 1000));
+            try {
+                orderJournal.open();
+            } catch (IOException | SQLException e) {
+                //-> Starting without it would leave acknowledged orders unapplied
+                throw new IllegalStateException("Could not recover the order journal.", e);
+            }
+            orderJournal.start();
+        } else {
+            this.orderJournal = null;
+        }
+        
+        //-> Optional catalog snapshot on local disk: lookups and the search index start from the file a previous run left
+        boolean snapshotLoaded = false;
+        if (DBPropertyUtil.getBoolean(properties, "catalog.snapshot.enabled", false)) {
+            this.catalogSnapshot = new CatalogSnapshot(dataSource,
+                    Paths.get(properties.getProperty("catalog.snapshot.file", "catalog.snapshot")), fetchSize);
+            snapshotLoaded = catalogSnapshot.open();
+        } else {
+            this.catalogSnapshot = null;
+        }
+        
+        //-> In-memory product search, built from the whole catalog once and kept current by this repository
+        if (DBPropertyUtil.getBoolean(properties, "search.enabled", false)) {
+            this.searchIndex = new ProductSearchIndex(DBPropertyUtil.getInt(properties, "search.maxPrefixTerms", 64));
+            if (snapshotLoaded) {
+                catalogSnapshot.forEach(searchIndexUpdater());
+            } else {
+                loadSearchIndex();
+            }
+        } else {
+            this.searchIndex = null;
+        }
+        
+        //-> The snapshot catches up with products in the background, changes it finds reach the search index
+        if (catalogSnapshot != null) {
+            catalogSnapshot.start(DBPropertyUtil.getLong(properties, "catalog.snapshot.intervalSeconds", 60),
+                    searchIndex != null ? searchIndexUpdater() : null);
+        }
+    }
+
+    //-> Pool statistics, only available when the repository owns a ConnectionPool
+    public PoolStats getPoolStats() {
+        return dataSource instanceof ConnectionPool ? ((ConnectionPool) dataSource).getStats() : null;
+    }
+
+    public CacheStats getProductCacheStats() {
+        return productCache.getStats();
+    }
+
+    public CacheStats getCustomerCacheStats() {
+        return customerCache.getStats();
+    }
+
+    //-> Reporting copy of the order tables, loaded from a replica when there is one; call refresh() before use
+    public SalesAnalytics createSalesAnalytics() {
+        return new SalesAnalytics(readRouter.forRead(), analyticsRefreshOverlap, fetchSize, historyReadModel);
+    }
+
+    //-> Null unless catalog.snapshot.enabled is set
+    public CatalogSnapshot getCatalogSnapshot() {
+        return catalogSnapshot;
+    }
+
+    //-> Null unless orders.journal.enabled is set
+    public OrderJournal getOrderJournal() {
+        return orderJournal;
+    }
+
+    //-> Null unless inventory.ledger.enabled is set
+    public InventoryLedger getInventoryLedger() {
+        return inventoryLedger;
     }
 
     public boolean createProduct(Product product) {
         String sql = "INSERT INTO products (product_name, price, description, stockQuantity) VALUES (?, ?, ?, ?)";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, product.getName());
             statement.setDouble(2, product.getPrice());
             statement.setString(3, product.getDescription());
             statement.setInt(4, product.getStockQuantity());           
             int rowsInserted = statement.executeUpdate();
+            
+            //-> Hand the new ID back and drop anything cached under it
+            ResultSet generatedKeys = statement.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                product.setProductId(generatedKeys.getInt(1));
+                productCache.invalidate(product.getProductId());
+                if (searchIndex != null) {
+                    searchIndex.add(product.getProductId(), product.getName(), product.getDescription());
+                }
+            }
             return rowsInserted > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -47,15 +232,88 @@ public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
         }
     }
 
+    @Override
+    public long createProducts(Iterator<Product> products) {
+        return createProducts(products, importBatchSize, importCommitSize, null);
+    }
+
+    @Override
+    public long createProducts(Iterator<Product> products, int batchSize, int commitSize, BulkImportListener listener) {
+        //-> Only one statement's worth of rows and one commit's worth of IDs are ever held, however long the feed is
+        int rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_IMPORT_ROWS_PER_STATEMENT));
+        int rowsPerCommit = rowsPerStatement * Math.max(1, commitSize / rowsPerStatement);
+        Product[] buffer = new Product[rowsPerStatement];
+        int[] pendingIds = new int[rowsPerCommit];
+        int pendingIdCount = 0;
+        int pendingRows = 0;
+        long rowsImported = 0;
+        
+        //-> Everything up to the last commit stays imported; the pool rolls back the rest and restores auto-commit on close
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement fullStatement = connection.prepareStatement(multiRowProductInsert(rowsPerStatement), Statement.RETURN_GENERATED_KEYS)) {
+                while (products.hasNext()) {
+                    int rows = 0;
+                    while (rows < rowsPerStatement && products.hasNext()) {
+                        buffer[rows++] = products.next();
+                    }
+                    
+                    //-> Full chunks reuse one prepared statement, only the last short chunk needs its own
+                    if (rows == rowsPerStatement) {
+                        pendingIdCount = insertProducts(fullStatement, buffer, rows, pendingIds, pendingIdCount);
+                    } else {
+                        try (PreparedStatement tailStatement = connection.prepareStatement(multiRowProductInsert(rows), Statement.RETURN_GENERATED_KEYS)) {
+                            pendingIdCount = insertProducts(tailStatement, buffer, rows, pendingIds, pendingIdCount);
+                        }
+                    }
+                    //-> Indexed before the commit, ids of a chunk that is rolled back later never resolve to a product
+                    if (searchIndex != null) {
+                        for (int i = 0; i < rows; i++) {
+                            searchIndex.add(buffer[i].getProductId(), buffer[i].getName(), buffer[i].getDescription());
+                        }
+                    }
+                    Arrays.fill(buffer, 0, rows, null);
+                    pendingRows += rows;
+                    
+                    if (pendingRows >= rowsPerCommit || !products.hasNext()) {
+                        connection.commit();
+                        rowsImported += pendingRows;
+                        for (int i = 0; i < pendingIdCount; i++) {
+                            productCache.invalidate(pendingIds[i]);
+                        }
+                        if (listener != null) {
+                            listener.onCommit(Arrays.copyOf(pendingIds, pendingIdCount), rowsImported);
+                        }
+                        pendingIdCount = 0;
+                        pendingRows = 0;
+                    }
+                }
+                return rowsImported;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return rowsImported;
+        }
+    }
+
     @Override
     public boolean createCustomer(Customer customer) {
         String sql = "INSERT INTO customers (name, email, password) VALUES (?, ?, ?)";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, customer.getName());
             statement.setString(2, customer.getEmail());
             statement.setString(3, customer.getPassword());          
             int rowsInserted = statement.executeUpdate();
+            
+            //-> Hand the new ID back and remember it, the customer's first calls then skip the guard query
+            ResultSet generatedKeys = statement.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                customer.setCustomerId(generatedKeys.getInt(1));
+                customerCache.put(customer.getCustomerId(), Boolean.TRUE);
+                readRouter.customerWrote(customer.getCustomerId());
+            }
             return rowsInserted > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -66,15 +324,27 @@ public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
     @Override
     public boolean deleteProduct(int productId) throws ProductNotFoundException {
         // Check if product exists first
-        if (!productExists(productId)) {
+        Product existing = getProduct(productId, true);
+        if (existing == null) {
             throw new ProductNotFoundException("Product with ID " + productId + " not found.");
         }
         
         String sql = "DELETE FROM products WHERE product_id = ?";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, productId);        
             int rowsDeleted = statement.executeUpdate();
+            productCache.invalidate(productId);
+            if (catalogSnapshot != null) {
+                catalogSnapshot.forget(productId);
+            }
+            if (inventoryLedger != null) {
+                inventoryLedger.forget(productId);
+            }
+            if (searchIndex != null) {
+                searchIndex.remove(productId, existing.getName(), existing.getDescription());
+            }
             return rowsDeleted > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -82,18 +352,54 @@ public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
         }
     }
 
+    @Override
+    public List<Product> searchProducts(String query, int limit) {
+        List<Product> products = new ArrayList<>(Math.max(0, limit));
+        if (searchIndex != null) {
+            //-> Ids come ranked from the index, rows from the product cache
+            for (int productId : searchIndex.search(query, limit)) {
+                Product product = getProduct(productId);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            return products;
+        }
+        
+        //-> Without the index: a plain name match, fine for small catalogs only
+        String sql = "SELECT product_id, product_name, price, description, stockQuantity FROM products " +
+                     "WHERE product_name LIKE ? ORDER BY product_id LIMIT ?";
+        
+        try (Connection connection = readRouter.forRead().getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, "%" + query.trim() + "%");
+            statement.setInt(2, limit);
+            ResultSet resultSet = statement.executeQuery();
+            
+            while (resultSet.next()) {
+                products.add(readProduct(resultSet));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return products;
+    }
+
     @Override
     public boolean deleteCustomer(int customerId) throws CustomerNotFoundException {
         // Check if customer exists first
-        if (!customerExists(customerId)) {
+        if (!customerExists(customerId, true)) {
             throw new CustomerNotFoundException("Customer with ID " + customerId + " not found.");
         }
         
         String sql = "DELETE FROM customers WHERE customer_id = ?";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, customerId);            
             int rowsDeleted = statement.executeUpdate();
+            readRouter.customerWrote(customerId);
+            customerCache.invalidate(customerId);
             return rowsDeleted > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -103,58 +409,44 @@ public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
 
     @Override
     public boolean addToCart(Customer customer, Product product, int quantity) throws CustomerNotFoundException, ProductNotFoundException {
-        //-> Check if customer exists or not
-        if (!customerExists(customer.getCustomerId())) {
-            throw new CustomerNotFoundException("Customer with ID " + customer.getCustomerId() + " not found.");
-        }
+        //-> One atomic upsert: the join only yields a row when both customer and product exist,
+        //-> and the unique (customer_id, product_id) key turns a repeat add into a quantity increment
+        String sql = "INSERT INTO cart (customer_id, product_id, quantity) " +
+                     "SELECT c.customer_id, p.product_id, ? FROM customers c JOIN products p ON p.product_id = ? " +
+                     "WHERE c.customer_id = ? " +
+                     "ON DUPLICATE KEY UPDATE quantity = quantity + ?";
+        int rowsAffected;
         
-        //-> Check if product exists or not
-        if (!productExists(product.getProductId())) {
-            throw new ProductNotFoundException("Product with ID " + product.getProductId() + " not found.");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, quantity);
+            statement.setInt(2, product.getProductId());
+            statement.setInt(3, customer.getCustomerId());
+            statement.setInt(4, quantity);
+            rowsAffected = statement.executeUpdate();
+            readRouter.customerWrote(customer.getCustomerId());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
         }
         
-        //-> Check if product is already in cart or not
-        String checkSql = "SELECT quantity FROM cart WHERE customer_id = ? AND product_id = ?";
-        String updateSql = "UPDATE cart SET quantity = quantity + ? WHERE customer_id = ? AND product_id = ?";
-        String insertSql = "INSERT INTO cart (customer_id, product_id, quantity) VALUES (?, ?, ?)";
-        
-        try {
-            //-> Check if product is already in cart or not
-            try (PreparedStatement checkStatement = connection.prepareStatement(checkSql)) {
-                checkStatement.setInt(1, customer.getCustomerId());
-                checkStatement.setInt(2, product.getProductId());                
-                ResultSet resultSet = checkStatement.executeQuery();
-                
-                if (resultSet.next()) {
-                    //-> Product exists in cart, update quantity
-                    try (PreparedStatement updateStatement = connection.prepareStatement(updateSql)) {
-                        updateStatement.setInt(1, quantity);
-                        updateStatement.setInt(2, customer.getCustomerId());
-                        updateStatement.setInt(3, product.getProductId());                       
-                        int rowsUpdated = updateStatement.executeUpdate();
-                        return rowsUpdated > 0;
-                    }
-                } else {
-                    //-> Product not in cart, insert new record
-                    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
-                        insertStatement.setInt(1, customer.getCustomerId());
-                        insertStatement.setInt(2, product.getProductId());
-                        insertStatement.setInt(3, quantity);  
-                        int rowsInserted = insertStatement.executeUpdate();
-                        return rowsInserted > 0;
-                    }
-                }
+        //-> Nothing written means the customer or the product is missing, checked in the original order
+        if (rowsAffected == 0) {
+            if (!customerExists(customer.getCustomerId(), true)) {
+                throw new CustomerNotFoundException("Customer with ID " + customer.getCustomerId() + " not found.");
+            }
+            if (!productExists(product.getProductId())) {
+                throw new ProductNotFoundException("Product with ID " + product.getProductId() + " not found.");
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
             return false;
         }
+        return true;
     }
 
     @Override
     public boolean removeFromCart(Customer customer, Product product) throws CustomerNotFoundException, ProductNotFoundException {
         //-> Check if customer exists or not
-        if (!customerExists(customer.getCustomerId())) {
+        if (!customerExists(customer.getCustomerId(), true)) {
             throw new CustomerNotFoundException("Customer with ID " + customer.getCustomerId() + " not found.");
         }
         
@@ -165,10 +457,12 @@ public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
         
         String sql = "DELETE FROM cart WHERE customer_id = ? AND product_id = ?";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, customer.getCustomerId());
             statement.setInt(2, product.getProductId());          
             int rowsDeleted = statement.executeUpdate();
+            readRouter.customerWrote(customer.getCustomerId());
             return rowsDeleted > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -178,244 +472,526 @@ public class OrderProcessorRepositoryImpl implements OrderProcessorRepository {
 
     @Override
     public List<Product> getAllFromCart(Customer customer) throws CustomerNotFoundException {
+        List<Product> cartProducts = new ArrayList<>();
+        forEachInCart(customer, cartProducts::add);
+        return cartProducts;
+    }
+
+    @Override
+    public Page<Product> getCartPage(Customer customer, String cursor, int pageSize) throws CustomerNotFoundException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        
         //-> Check if customer exists or not
         if (!customerExists(customer.getCustomerId())) {
             throw new CustomerNotFoundException("Customer with ID " + customer.getCustomerId() + " not found.");
         }
         
-        List<Product> cartProducts = new ArrayList<>();
-        String sql = "SELECT p.product_id, p.product_name, p.price, p.description, p.stockQuantity, c.quantity " +
-                     "FROM products p JOIN cart c ON p.product_id = c.product_id " +
-                     "WHERE c.customer_id = ?";
+        //-> Seek past the last cart_id of the previous page, one extra row tells whether another page follows
+        List<Product> cartProducts = new ArrayList<>(pageSize);
+        String sql = "SELECT c.cart_id, p.product_id, p.product_name, p.price, p.description, p.stockQuantity, c.quantity " +
+                     "FROM cart c JOIN products p ON p.product_id = c.product_id " +
+                     "WHERE c.customer_id = ? AND c.cart_id > ? ORDER BY c.cart_id LIMIT ?";
+        String nextCursor = null;
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setInt(1, customer.getCustomerId());      
+        try (Connection connection = readRouter.forCustomerRead(customer.getCustomerId()).getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, customer.getCustomerId());
+            statement.setInt(2, CursorUtil.decode(cursor));
+            statement.setInt(3, pageSize + 1);
             ResultSet resultSet = statement.executeQuery();
             
+            int lastCartId = 0;
             while (resultSet.next()) {
-                Product product = new Product();
-                product.setProductId(resultSet.getInt("product_id"));
-                product.setName(resultSet.getString("product_name"));
-                product.setPrice(resultSet.getDouble("price"));
-                product.setDescription(resultSet.getString("description"));
-                product.setStockQuantity(resultSet.getInt("stockQuantity"));
-                
-                cartProducts.add(product);
+                if (cartProducts.size() == pageSize) {
+                    nextCursor = CursorUtil.encode(lastCartId);
+                    break;
+                }
+                lastCartId = resultSet.getInt("cart_id");
+                cartProducts.add(readProduct(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
-        }        
-        return cartProducts;
+        }
+        return new Page<>(cartProducts, nextCursor);
     }
 
     @Override
-    public boolean placeOrder(Customer customer, List<Map<Product, Integer>> productsWithQuantities, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException {
+    public void forEachInCart(Customer customer, Consumer<Product> consumer) throws CustomerNotFoundException {
         //-> Check if customer exists or not
         if (!customerExists(customer.getCustomerId())) {
             throw new CustomerNotFoundException("Customer with ID " + customer.getCustomerId() + " not found.");
         }
         
-        //-> Calculate total price
-        double totalPrice = 0;
+        String sql = "SELECT p.product_id, p.product_name, p.price, p.description, p.stockQuantity, c.quantity " +
+                     "FROM cart c JOIN products p ON p.product_id = c.product_id " +
+                     "WHERE c.customer_id = ? ORDER BY c.cart_id";
+        
+        //-> Rows are handed over as they are fetched, the consumer must not call back into the repository
+        try (Connection connection = readRouter.forCustomerRead(customer.getCustomerId()).getConnection();
+             PreparedStatement statement = prepareStreaming(connection, sql)) {
+            statement.setInt(1, customer.getCustomerId());      
+            ResultSet resultSet = statement.executeQuery();
+            
+            while (resultSet.next()) {
+                consumer.accept(readProduct(resultSet));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public boolean placeOrder(Customer customer, List<Map<Product, Integer>> productsWithQuantities, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException {
+        //-> Adapter for the original signature, every line keeps the name and price of the Product it came with
+        int lineCount = 0;
+        for (Map<Product, Integer> map : productsWithQuantities) {
+            lineCount += map.size();
+        }
+        OrderLines lines = new OrderLines(lineCount);
         for (Map<Product, Integer> map : productsWithQuantities) {
             for (Map.Entry<Product, Integer> entry : map.entrySet()) {
                 Product product = entry.getKey();
-                int quantity = entry.getValue();
-                
-                //-> Check if product exists and has sufficient stock
-                if (!productExists(product.getProductId())) {
-                    throw new ProductNotFoundException("Product with ID " + product.getProductId() + " not found.");
-                }
-                
-                //-> Get current stock
-                int currentStock = 0;
-				try {
-					currentStock = getProductStock(product.getProductId());
-				} catch (SQLException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-                if (currentStock < quantity) {
-                    throw new IllegalArgumentException("Insufficient stock for product ID " + product.getProductId());
-                }          
-                totalPrice += product.getPrice() * quantity;
-            }
-        }
-        
-        //-> Start the transaction
+                lines.add(product.getProductId(), entry.getValue(), product.getName(), product.getPrice());
+            }
+        }
+        return placeOrder(customer.getCustomerId(), lines, shippingAddress);
+    }
+
+    @Override
+    public boolean placeOrder(int customerId, int[] productIds, int[] quantities, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException {
+        return placeOrder(customerId, new OrderLines(productIds, quantities), shippingAddress);
+    }
+
+    @Override
+    public boolean placeOrder(int customerId, OrderLines lines, String shippingAddress) throws CustomerNotFoundException, ProductNotFoundException {
+        //-> Check if customer exists or not
+        if (!customerExists(customerId, true)) {
+            throw new CustomerNotFoundException("Customer with ID " + customerId + " not found.");
+        }
+        
+        //-> Copied out of the caller's buffer, which may be refilled while the group commit writer still holds the order
+        int lineCount = lines.size();
+        int[] productIds = new int[lineCount];
+        int[] quantities = new int[lineCount];
+        String[] productNames = new String[lineCount];
+        double[] unitPrices = new double[lineCount];
+        for (int line = 0; line < lineCount; line++) {
+            productIds[line] = lines.getProductId(line);
+            quantities[line] = lines.getQuantity(line);
+            productNames[line] = lines.getProductName(line);
+            unitPrices[line] = lines.getUnitPrice(line);
+        }
+        
+        //-> Lines given by id only are priced from the catalog, then the total is calculated
         try {
-            connection.setAutoCommit(false);
-            
-            // 1. Create order record
-            String orderSql = "INSERT INTO orders (customer_id, total_price, shipping_address) VALUES (?, ?, ?)";
-            int orderId;
-            
-            try (PreparedStatement orderStatement = connection.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
-                orderStatement.setInt(1, customer.getCustomerId());
-                orderStatement.setDouble(2, totalPrice);
-                orderStatement.setString(3, shippingAddress);          
-                orderStatement.executeUpdate();
-                
-                //-> Get generated order ID
-                ResultSet generatedKeys = orderStatement.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    orderId = generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Failed to get order ID.");
-                }
+            priceLines(productIds, productNames, unitPrices);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        double totalPrice = 0;
+        for (int line = 0; line < lineCount; line++) {
+            totalPrice += unitPrices[line] * quantities[line];
+        }
+        
+        //-> With the ledger on, stock is taken from the in-memory counters before any SQL runs
+        boolean reserved = false;
+        if (inventoryLedger != null) {
+            int rejectedLine;
+            try {
+                rejectedLine = inventoryLedger.reserve(productIds, quantities);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
             }
-            
-            // 2. Create order items and update product stock
-            String orderItemSql = "INSERT INTO order_items (order_id, product_id, quantity) VALUES (?, ?, ?)";
-            String updateStockSql = "UPDATE products SET stockQuantity = stockQuantity - ? WHERE product_id = ?";
-            
-            for (Map<Product, Integer> map : productsWithQuantities) {
-                for (Map.Entry<Product, Integer> entry : map.entrySet()) {
-                    Product product = entry.getKey();
-                    int quantity = entry.getValue();
-                    
-                    //-> Add order item
-                    try (PreparedStatement orderItemStatement = connection.prepareStatement(orderItemSql)) {
-                        orderItemStatement.setInt(1, orderId);
-                        orderItemStatement.setInt(2, product.getProductId());
-                        orderItemStatement.setInt(3, quantity);          
-                        orderItemStatement.executeUpdate();
-                    }
-                    
-                    //-> Update product stock
-                    try (PreparedStatement updateStockStatement = connection.prepareStatement(updateStockSql)) {
-                        updateStockStatement.setInt(1, quantity);
-                        updateStockStatement.setInt(2, product.getProductId());
-                        updateStockStatement.executeUpdate();
-                    }
+            if (rejectedLine >= 0) {
+                int productId = productIds[rejectedLine];
+                if (!productExists(productId)) {
+                    throw new ProductNotFoundException("Product with ID " + productId + " not found.");
                 }
+                throw new IllegalArgumentException("Insufficient stock for product ID " + productId);
             }
-            
-            // 3. Clear the cart for this customer
-            String clearCartSql = "DELETE FROM cart WHERE customer_id = ?";
-            try (PreparedStatement clearCartStatement = connection.prepareStatement(clearCartSql)) {
-                clearCartStatement.setInt(1, customer.getCustomerId());
-                clearCartStatement.executeUpdate();
+            reserved = true;
+        }
+        
+        //-> Journaled and applied later, written in a transaction of its own, or queued for the group commit writer
+        PendingOrder order = null;
+        try {
+            order = new PendingOrder(orderIds.nextInt(), customerId, productIds, quantities, productNames, unitPrices,
+                    totalPrice, shippingAddress);
+            if (orderJournal != null) {
+                orderJournal.append(order);
+                return true;
+            } else if (groupCommitWriter != null) {
+                groupCommitWriter.write(order);
+            } else {
+                orderWriter.write(order);
             }
-            
-            //-> Commit transaction
-            connection.commit();
+            orderApplied(order);
             return true;
-        } catch (SQLException e) {
-            try {
-                connection.rollback();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
+        } catch (SQLException | IOException e) {
             e.printStackTrace();
             return false;
         } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
+            //-> A failed commit may still have landed, so its units stay reserved until the next restart reloads them
+            if (reserved && (order == null || !order.isCommitting())) {
+                inventoryLedger.release(productIds, quantities, lineCount);
             }
         }
     }
 
     @Override
     public List<Map<Product, Integer>> getOrdersByCustomer(int customerId) throws CustomerNotFoundException, OrderNotFoundException {
+        List<Map<Product, Integer>> orders = new ArrayList<>();
+        
+        //-> Same shape as before: one map per order, orders without items are left out
+        for (OrderDetails order : getOrderHistory(customerId)) {
+            if (!order.getItems().isEmpty()) {
+                orders.add(new HashMap<>(order.getItems()));
+            }
+        }
+        return orders;
+    }
+
+    @Override
+    public List<OrderDetails> getOrderHistory(int customerId) throws CustomerNotFoundException, OrderNotFoundException {
+        List<OrderDetails> orders = new ArrayList<>();
+        forEachOrder(customerId, orders::add);
+        
+        if (orders.isEmpty()) {
+            throw new OrderNotFoundException("No orders found for customer ID " + customerId);
+        }
+        return orders;
+    }
+
+    @Override
+    public Page<OrderDetails> getOrderHistoryPage(int customerId, String cursor, int pageSize) throws CustomerNotFoundException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        
         //-> Check if customer exists or not
         if (!customerExists(customerId)) {
             throw new CustomerNotFoundException("Customer with ID " + customerId + " not found.");
         }
         
-        List<Map<Product, Integer>> orders = new ArrayList<>();
-        
-        //-> First get all orders for the customer
-        String ordersSql = "SELECT order_id FROM orders WHERE customer_id = ?";
-        List<Integer> orderIds = new ArrayList<>();
+        //-> The derived table picks the page of orders by order_id, the joins then only touch those orders
+        List<OrderDetails> orders = new ArrayList<>(pageSize + 1);
+        String sql = historyReadModel ? HISTORY_PAGE_SQL : "SELECT o.order_id, o.customer_id, o.order_date, o.total_price, o.shipping_address, " +
+                     "p.product_id, p.product_name, p.price, p.description, p.stockQuantity, oi.quantity " +
+                     "FROM (SELECT order_id, customer_id, order_date, total_price, shipping_address FROM orders " +
+                     "WHERE customer_id = ? AND order_id > ? ORDER BY order_id LIMIT ?) o " +
+                     "LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+                     "LEFT JOIN products p ON p.product_id = oi.product_id " +
+                     "ORDER BY o.order_id";
         
-        try (PreparedStatement ordersStatement = connection.prepareStatement(ordersSql)) {
-            ordersStatement.setInt(1, customerId);  
-            ResultSet ordersResult = ordersStatement.executeQuery();
-            
-            while (ordersResult.next()) {
-                orderIds.add(ordersResult.getInt("order_id"));
+        try (Connection connection = readRouter.forCustomerRead(customerId).getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, customerId);
+            statement.setInt(2, CursorUtil.decode(cursor));
+            statement.setInt(3, pageSize + 1);
+            if (historyReadModel) {
+                statement.setInt(4, customerId);
             }
+            ResultSet resultSet = statement.executeQuery();
+            readOrderHistory(resultSet, orders::add);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         
-        if (orderIds.isEmpty()) {
-            throw new OrderNotFoundException("No orders found for customer ID " + customerId);
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders.remove(pageSize);
+            nextCursor = CursorUtil.encode(orders.get(pageSize - 1).getOrderId());
+        }
+        return new Page<>(orders, nextCursor);
+    }
+
+    @Override
+    public void forEachOrder(int customerId, Consumer<OrderDetails> consumer) throws CustomerNotFoundException {
+        //-> Check if customer exists or not
+        if (!customerExists(customerId)) {
+            throw new CustomerNotFoundException("Customer with ID " + customerId + " not found.");
         }
         
-        //-> For each order, get the products and quantities
-        String itemsSql = "SELECT p.product_id, p.product_name, p.price, p.description, p.stockQuantity, oi.quantity " +
-                         "FROM order_items oi JOIN products p ON oi.product_id = p.product_id " +
-                         "WHERE oi.order_id = ?";
+        //-> One query for every order and its items, rows arrive grouped by order_id
+        String sql = historyReadModel ? HISTORY_SQL : "SELECT o.order_id, o.customer_id, o.order_date, o.total_price, o.shipping_address, " +
+                     "p.product_id, p.product_name, p.price, p.description, p.stockQuantity, oi.quantity " +
+                     "FROM orders o " +
+                     "LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+                     "LEFT JOIN products p ON p.product_id = oi.product_id " +
+                     "WHERE o.customer_id = ? ORDER BY o.order_id";
         
-        for (int orderId : orderIds) {
-            Map<Product, Integer> orderItems = new HashMap<>();
-            
-            try (PreparedStatement itemsStatement = connection.prepareStatement(itemsSql)) {
-                itemsStatement.setInt(1, orderId);  
-                ResultSet itemsResult = itemsStatement.executeQuery();
-                
-                while (itemsResult.next()) {
-                    Product product = new Product();
-                    product.setProductId(itemsResult.getInt("product_id"));
-                    product.setName(itemsResult.getString("product_name"));
-                    product.setPrice(itemsResult.getDouble("price"));
-                    product.setDescription(itemsResult.getString("description"));
-                    product.setStockQuantity(itemsResult.getInt("stockQuantity"));                
-                    int quantity = itemsResult.getInt("quantity");          
-                    orderItems.put(product, quantity);
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-            
-            if (!orderItems.isEmpty()) {
-                orders.add(orderItems);
-            }
-        }   
-        return orders;
+        //-> Orders are handed over as they are fetched, the consumer must not call back into the repository
+        try (Connection connection = readRouter.forCustomerRead(customerId).getConnection();
+             PreparedStatement statement = prepareStreaming(connection, sql)) {
+            statement.setInt(1, customerId);
+            ResultSet resultSet = statement.executeQuery();
+            readOrderHistory(resultSet, consumer);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
     
     //-> Helper methods
+    //-> The order is in the database: reads for the customer go to the primary for a while, and stock has changed,
+    //-> so cached rows for these products are stale
+    private void orderApplied(PendingOrder order) {
+        readRouter.customerWrote(order.getCustomerId());
+        for (int productId : order.getProductIds()) {
+            productCache.invalidate(productId);
+        }
+    }
+    
     private boolean customerExists(int customerId) {
+        return customerExists(customerId, false);
+    }
+    
+    //-> fromPrimary is for checks that guard a write: a lagging replica may not have a customer created just now
+    private boolean customerExists(int customerId, boolean fromPrimary) {
+        //-> Only known customers are cached, an unknown ID always gets an authoritative answer from the database
+        if (customerCache.get(customerId) != null) {
+            return true;
+        }
+        
+        long stamp = customerCache.stamp(customerId);
         String sql = "SELECT 1 FROM customers WHERE customer_id = ?";
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try (Connection connection = (fromPrimary ? dataSource : readRouter.forCustomerRead(customerId)).getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, customerId);   
             ResultSet resultSet = statement.executeQuery();
-            return resultSet.next();
+            if (resultSet.next()) {
+                customerCache.put(customerId, Boolean.TRUE, stamp);
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
     
+    //-> Guards a write, so a miss is checked on the primary: a lagging replica may not have a product created just now
     private boolean productExists(int productId) {
-        String sql = "SELECT 1 FROM products WHERE product_id = ?";
+        return getProduct(productId, true) != null;
+    }
+    
+    private Product getProduct(int productId) {
+        return getProduct(productId, false);
+    }
+    
+    //-> Read-through lookup: the product cache first, then a single SELECT whose result is cached.
+    //-> fromPrimary is for lookups that decide whether a write may go ahead
+    private Product getProduct(int productId, boolean fromPrimary) {
+        Product cached = productCache.get(productId);
+        if (cached != null) {
+            return cached;
+        }
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setInt(1, productId);     
+        long stamp = productCache.stamp(productId);
+        
+        //-> Served from the mapped snapshot when it has the product, its price and stock may be as old as the last rescan.
+        //-> Not cached, so checkout never prices from it, and not used to guard writes
+        if (catalogSnapshot != null && !fromPrimary) {
+            Product snapshotted = catalogSnapshot.get(productId);
+            if (snapshotted != null) {
+                return snapshotted;
+            }
+        }
+        
+        String sql = "SELECT product_id, product_name, price, description, stockQuantity FROM products WHERE product_id = ?";
+        
+        try (Connection connection = (fromPrimary ? dataSource : readRouter.forRead()).getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, productId);
             ResultSet resultSet = statement.executeQuery();
-            return resultSet.next();
+            if (!resultSet.next()) {
+                return null;
+            }
+            Product product = new Product(resultSet.getInt("product_id"), resultSet.getString("product_name"),
+                    resultSet.getDouble("price"), resultSet.getString("description"), resultSet.getInt("stockQuantity"));
+            productCache.put(productId, product, stamp);
+            return product;
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
     
-    private int getProductStock(int productId) throws SQLException {
-        String sql = "SELECT stockQuantity FROM products WHERE product_id = ?";
+    //-> Fills in name and price for the lines left at NaN: from the product cache, the misses with one IN query per chunk
+    private void priceLines(int[] productIds, String[] productNames, double[] unitPrices) throws SQLException, ProductNotFoundException {
+        int[] missing = null;
+        int missingCount = 0;
+        for (int line = 0; line < productIds.length; line++) {
+            if (!Double.isNaN(unitPrices[line])) {
+                continue;
+            }
+            Product cached = productCache.get(productIds[line]);
+            if (cached != null) {
+                productNames[line] = cached.getName();
+                unitPrices[line] = cached.getPrice();
+            } else {
+                if (missing == null) {
+                    missing = new int[productIds.length - line];
+                }
+                missing[missingCount++] = line;
+            }
+        }
         
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setInt(1, productId);
+        for (int from = 0; from < missingCount; from += MAX_PRICE_LOOKUP_IDS) {
+            int count = Math.min(MAX_PRICE_LOOKUP_IDS, missingCount - from);
+            StringBuilder sql = new StringBuilder("SELECT product_id, product_name, price, description, stockQuantity FROM products WHERE product_id IN (");
+            for (int i = 0; i < count; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            
+            //-> The price charged is read from the primary, a replica may not have the product or its new price yet
+            long[] stamps = new long[count];
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < count; i++) {
+                    int productId = productIds[missing[from + i]];
+                    stamps[i] = productCache.stamp(productId);
+                    statement.setInt(i + 1, productId);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Product product = new Product(resultSet.getInt("product_id"), resultSet.getString("product_name"),
+                                resultSet.getDouble("price"), resultSet.getString("description"), resultSet.getInt("stockQuantity"));
+                        //-> Every line of this chunk with that id, the same product may be listed more than once
+                        for (int i = 0; i < count; i++) {
+                            int line = missing[from + i];
+                            if (productIds[line] == product.getProductId()) {
+                                productNames[line] = product.getName();
+                                unitPrices[line] = product.getPrice();
+                                productCache.put(product.getProductId(), product, stamps[i]);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        
+        for (int i = 0; i < missingCount; i++) {
+            if (Double.isNaN(unitPrices[missing[i]])) {
+                throw new ProductNotFoundException("Product with ID " + productIds[missing[i]] + " not found.");
+            }
+        }
+    }
+    
+    //-> Streams order rows (sorted by order_id) and hands over each order once all its items are read
+    private void readOrderHistory(ResultSet resultSet, Consumer<OrderDetails> sink) throws SQLException {
+        OrderDetails current = null;
+        
+        while (resultSet.next()) {
+            int orderId = resultSet.getInt("order_id");
+            if (current == null || current.getOrderId() != orderId) {
+                if (current != null) {
+                    sink.accept(current);
+                }
+                current = new OrderDetails(orderId, resultSet.getInt("customer_id"), resultSet.getTimestamp("order_date"),
+                        resultSet.getDouble("total_price"), resultSet.getString("shipping_address"));
+            }
+            
+            //-> Orders without items come back with NULL product columns
+            resultSet.getInt("product_id");
+            if (!resultSet.wasNull()) {
+                current.getItems().put(readProduct(resultSet), resultSet.getInt("quantity"));
+            }
+        }
+        if (current != null) {
+            sink.accept(current);
+        }
+    }
+    
+    private static String multiRowProductInsert(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO products (product_name, price, description, stockQuantity) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+    
+    //-> Binds and runs one multi-row insert, generated IDs are set on the products and appended to ids
+    private static int insertProducts(PreparedStatement statement, Product[] products, int rows, int[] ids, int idCount) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < rows; i++) {
+            Product product = products[i];
+            statement.setString(index++, product.getName());
+            statement.setDouble(index++, product.getPrice());
+            statement.setString(index++, product.getDescription());
+            statement.setInt(index++, product.getStockQuantity());
+        }
+        statement.executeUpdate();
+        
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            int row = 0;
+            while (generatedKeys.next() && row < rows) {
+                int productId = generatedKeys.getInt(1);
+                products[row++].setProductId(productId);
+                ids[idCount++] = productId;
+            }
+        }
+        return idCount;
+    }
+    
+    private CatalogSnapshot.ChangeListener searchIndexUpdater() {
+        return new CatalogSnapshot.ChangeListener() {
+            @Override
+            public void added(int productId, String name, String description) {
+                searchIndex.add(productId, name, description);
+            }
+
+            @Override
+            public void removed(int productId, String name, String description) {
+                searchIndex.remove(productId, name, description);
+            }
+        };
+    }
+    
+    private void loadSearchIndex() {
+        //-> In id order, so every posting list is built by appends
+        String sql = "SELECT product_id, product_name, description FROM products ORDER BY product_id";
+        
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepareStreaming(connection, sql)) {
             ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt("stockQuantity");
+            
+            while (resultSet.next()) {
+                searchIndex.add(resultSet.getInt("product_id"), resultSet.getString("product_name"), resultSet.getString("description"));
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    //-> One pool per db.replica.urls entry, sharing the primary's pool settings
+    private static List<DataSource> replicaPools(String propertyFileName) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (PoolConfig config : DBPropertyUtil.getReplicaPoolConfigs(propertyFileName)) {
+            replicas.add(new ConnectionPool(config));
         }
-        return 0;
+        return replicas;
+    }
+    
+    private static Product readProduct(ResultSet resultSet) throws SQLException {
+        Product product = new Product();
+        product.setProductId(resultSet.getInt("product_id"));
+        product.setName(resultSet.getString("product_name"));
+        product.setPrice(resultSet.getDouble("price"));
+        product.setDescription(resultSet.getString("description"));
+        product.setStockQuantity(resultSet.getInt("stockQuantity"));
+        return product;
+    }
+    
+    //-> Forward-only statement with a bounded fetch size, so the driver never holds the whole result in memory
+    private PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
     }
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.hexaware.Service;
+
+import com.hexaware.Exception.ProductNotFoundException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import javax.sql.DataSource;
+
+//-> The SQL that turns a PendingOrder into rows, shared by the one-transaction-per-order and group commit paths
+public class OrderWriter {
+    private final DataSource dataSource;
+    private final InventoryLedger inventoryLedger;
+    private final boolean writeHistory;
+    private final boolean clearOrderedOnly;
+
+    //-> inventoryLedger is null when stock is decremented directly on products,
+    //-> writeHistory also maintains the order_history_lines read model
+    public OrderWriter(DataSource dataSource, InventoryLedger inventoryLedger, boolean writeHistory) {
+        this(dataSource, inventoryLedger, writeHistory, false);
+    }
+
+    //-> clearOrderedOnly removes just the ordered products from the cart, for orders written after the customer
+    //-> may have carried on shopping (the order journal)
+    public OrderWriter(DataSource dataSource, InventoryLedger inventoryLedger, boolean writeHistory, boolean clearOrderedOnly) {
+        this.dataSource = dataSource;
+        this.inventoryLedger = inventoryLedger;
+        this.writeHistory = writeHistory;
+        this.clearOrderedOnly = clearOrderedOnly;
+    }
+
+    //-> Writes the order in a transaction of its own; the pool rolls back and restores auto-commit on close
+    public void write(PendingOrder order) throws ProductNotFoundException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int rejectedLine = writeRows(connection, order);
+                if (rejectedLine >= 0) {
+                    connection.rollback();
+                    throwRejection(connection, order, rejectedLine);
+                }
+
+                order.setCommitting(true);
+                connection.commit();
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+        }
+    }
+
+    //-> Runs every statement of the order on the caller's transaction without committing.
+    //-> Returns -1, or the index of the line whose stock could not be taken (nothing after it was written).
+    public int writeRows(Connection connection, PendingOrder order) throws SQLException {
+        int[] productIds = order.getProductIds();
+        int[] quantities = order.getQuantities();
+        int lineCount = order.getLineCount();
+
+        // 1. Take the stock: ledger rows for an in-memory reservation, otherwise one batch of guarded decrements
+        if (inventoryLedger != null) {
+            inventoryLedger.record(connection, productIds, quantities);
+        } else {
+            String updateStockSql = "UPDATE products SET stockQuantity = stockQuantity - ? WHERE product_id = ? AND stockQuantity >= ?";
+
+            try (PreparedStatement updateStockStatement = connection.prepareStatement(updateStockSql)) {
+                for (int i = 0; i < lineCount; i++) {
+                    updateStockStatement.setInt(1, quantities[i]);
+                    updateStockStatement.setInt(2, productIds[i]);
+                    updateStockStatement.setInt(3, quantities[i]);
+                    updateStockStatement.addBatch();
+                }
+                int[] updateCounts = updateStockStatement.executeBatch();
+                for (int i = 0; i < updateCounts.length; i++) {
+                    if (updateCounts[i] == 0) {
+                        return i;
+                    }
+                }
+            }
+        }
+
+        // 2. Create order record under an id taken from the allocator, no generated key to wait for
+        String orderSql = "INSERT INTO orders (order_id, customer_id, order_date, total_price, shipping_address) VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement orderStatement = connection.prepareStatement(orderSql)) {
+            orderStatement.setInt(1, order.getOrderId());
+            orderStatement.setInt(2, order.getCustomerId());
+            orderStatement.setTimestamp(3, order.getOrderDate());
+            orderStatement.setDouble(4, order.getTotalPrice());
+            orderStatement.setString(5, order.getShippingAddress());
+            orderStatement.executeUpdate();
+        }
+
+        // 3. Create all order items in one batch
+        String orderItemSql = "INSERT INTO order_items (order_id, product_id, quantity) VALUES (?, ?, ?)";
+
+        try (PreparedStatement orderItemStatement = connection.prepareStatement(orderItemSql)) {
+            for (int i = 0; i < lineCount; i++) {
+                orderItemStatement.setInt(1, order.getOrderId());
+                orderItemStatement.setInt(2, productIds[i]);
+                orderItemStatement.setInt(3, quantities[i]);
+                orderItemStatement.addBatch();
+            }
+            orderItemStatement.executeBatch();
+        }
+
+        // 4. Clear the cart for this customer, or only the products ordered
+        if (clearOrderedOnly) {
+            String clearCartSql = "DELETE FROM cart WHERE customer_id = ? AND product_id = ?";
+            try (PreparedStatement clearCartStatement = connection.prepareStatement(clearCartSql)) {
+                for (int i = 0; i < lineCount; i++) {
+                    clearCartStatement.setInt(1, order.getCustomerId());
+                    clearCartStatement.setInt(2, productIds[i]);
+                    clearCartStatement.addBatch();
+                }
+                clearCartStatement.executeBatch();
+            }
+        } else {
+            String clearCartSql = "DELETE FROM cart WHERE customer_id = ?";
+            try (PreparedStatement clearCartStatement = connection.prepareStatement(clearCartSql)) {
+                clearCartStatement.setInt(1, order.getCustomerId());
+                clearCartStatement.executeUpdate();
+            }
+        }
+
+        // 5. History rows with the name and price as ordered; an order without lines still gets its summary row
+        if (writeHistory) {
+            String historySql = "INSERT INTO order_history_lines (customer_id, order_id, line_no, order_date, total_price, shipping_address, " +
+                                "product_id, product_name, unit_price, quantity) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+            try (PreparedStatement historyStatement = connection.prepareStatement(historySql)) {
+                for (int i = 0; i < Math.max(1, lineCount); i++) {
+                    historyStatement.setInt(1, order.getCustomerId());
+                    historyStatement.setInt(2, order.getOrderId());
+                    historyStatement.setInt(3, i);
+                    historyStatement.setTimestamp(4, order.getOrderDate());
+                    historyStatement.setDouble(5, order.getTotalPrice());
+                    historyStatement.setString(6, order.getShippingAddress());
+                    if (lineCount == 0) {
+                        historyStatement.setNull(7, Types.INTEGER);
+                        historyStatement.setNull(8, Types.VARCHAR);
+                        historyStatement.setNull(9, Types.DECIMAL);
+                        historyStatement.setNull(10, Types.INTEGER);
+                    } else {
+                        historyStatement.setInt(7, productIds[i]);
+                        historyStatement.setString(8, order.getProductNames()[i]);
+                        historyStatement.setDouble(9, order.getUnitPrices()[i]);
+                        historyStatement.setInt(10, quantities[i]);
+                    }
+                    historyStatement.addBatch();
+                }
+                historyStatement.executeBatch();
+            }
+        }
+        return -1;
+    }
+
+    //-> A line that matched no row is either an unknown product or short on stock
+    public void throwRejection(Connection connection, PendingOrder order, int rejectedLine) throws ProductNotFoundException, SQLException {
+        int productId = order.getProductIds()[rejectedLine];
+        String sql = "SELECT 1 FROM products WHERE product_id = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, productId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new ProductNotFoundException("Product with ID " + productId + " not found.");
+                }
+            }
+        }
+        throw new IllegalArgumentException("Insufficient stock for product ID " + productId);
+    }
+}
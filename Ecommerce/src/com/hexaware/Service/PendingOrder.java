@@ -0,0 +1,105 @@
+package com.hexaware.Service;
+
+import java.sql.Timestamp;
+import java.util.concurrent.CompletableFuture;
+
+//-> An order flattened into parallel arrays, ready to be written with an id that is already assigned
+public class PendingOrder {
+    private final int orderId;
+    private final int customerId;
+    private final int[] productIds;
+    private final int[] quantities;
+    private final String[] productNames;
+    private final double[] unitPrices;
+    private final double totalPrice;
+    private final String shippingAddress;
+    private final Timestamp orderDate;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private volatile boolean committing;
+
+    //-> productNames and unitPrices are what the customer saw at checkout, kept for the order history
+    public PendingOrder(int orderId, int customerId, int[] productIds, int[] quantities, String[] productNames, double[] unitPrices,
+                        double totalPrice, String shippingAddress) {
+        this(orderId, customerId, productIds, quantities, productNames, unitPrices, totalPrice, shippingAddress,
+                new Timestamp(System.currentTimeMillis()));
+    }
+
+    //-> Keeps the original order date, for an order read back from the order journal
+    public PendingOrder(int orderId, int customerId, int[] productIds, int[] quantities, String[] productNames, double[] unitPrices,
+                        double totalPrice, String shippingAddress, Timestamp orderDate) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.productNames = productNames;
+        this.unitPrices = unitPrices;
+        this.totalPrice = totalPrice;
+        this.shippingAddress = shippingAddress;
+        this.orderDate = orderDate;
+    }
+
+    //-> Getters
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public int[] getProductIds() {
+        return productIds;
+    }
+
+    public int[] getQuantities() {
+        return quantities;
+    }
+
+    public String[] getProductNames() {
+        return productNames;
+    }
+
+    public double[] getUnitPrices() {
+        return unitPrices;
+    }
+
+    public int getLineCount() {
+        return productIds.length;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public Timestamp getOrderDate() {
+        return orderDate;
+    }
+
+    //-> Completed by whoever writes the order, exceptionally when it was rejected or failed
+    public CompletableFuture<Void> getResult() {
+        return result;
+    }
+
+    //-> Set right before the commit is sent; after that a failure no longer proves the order was not written
+    public boolean isCommitting() {
+        return committing;
+    }
+
+    public void setCommitting(boolean committing) {
+        this.committing = committing;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingOrder{" +
+                "orderId=" + orderId +
+                ", customerId=" + customerId +
+                ", lines=" + productIds.length +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
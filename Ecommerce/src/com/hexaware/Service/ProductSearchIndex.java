@@ -0,0 +1,358 @@
+package com.hexaware.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//-> Inverted index over product name and description.
+//-> Terms live in a sorted map so the last query word can be matched as a prefix (search-as-you-type);
+//-> each term keeps its product ids in a sorted int array with a precomputed weight per product.
+//-> Every query word must match; results are ranked by the sum of idf * weight over the words.
+public class ProductSearchIndex {
+    private static final float NAME_BOOST = 3.0f;
+    private static final float PREFIX_PENALTY = 0.8f;
+
+    private final int maxPrefixTerms;
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    //-> Ids with at least one term, so adding a product again (or with a new term) is not counted twice
+    private final BitSet documents = new BitSet();
+    private int documentCount;
+
+    //-> maxPrefixTerms caps how many terms a prefix expands to, which bounds the cost of one-letter prefixes
+    public ProductSearchIndex(int maxPrefixTerms) {
+        this.maxPrefixTerms = Math.max(1, maxPrefixTerms);
+    }
+
+    //-> Called once per new product, adding the same id again only refreshes the weights of its current terms
+    public void add(int productId, String name, String description) {
+        Map<String, Float> weights = weigh(name, description);
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings()).put(productId, entry.getValue());
+            }
+            if (!weights.isEmpty() && !documents.get(productId)) {
+                documents.set(productId);
+                documentCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //-> Name and description must be the ones the product was indexed with
+    public void remove(int productId, String name, String description) {
+        Map<String, Float> weights = weigh(name, description);
+        lock.writeLock().lock();
+        try {
+            boolean removed = false;
+            for (String term : weights.keySet()) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(productId)) {
+                    removed = true;
+                    if (postings.size == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            if (removed && documents.get(productId)) {
+                documents.clear(productId);
+                documentCount--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //-> Best matching product ids first, at most limit of them
+    public int[] search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            //-> One clause per word, the last word also matches longer terms
+            Clause[] clauses = new Clause[words.size()];
+            for (int i = 0; i < clauses.length; i++) {
+                clauses[i] = clause(words.get(i), i == clauses.length - 1);
+                if (clauses[i].postings.length == 0) {
+                    return new int[0];
+                }
+            }
+
+            //-> Walk the rarest clause and probe the others by binary search
+            Clause driver = clauses[0];
+            for (Clause clause : clauses) {
+                if (clause.documentFrequency < driver.documentFrequency) {
+                    driver = clause;
+                }
+            }
+
+            TopK topK = new TopK(limit);
+            for (int t = 0; t < driver.postings.length; t++) {
+                Postings postings = driver.postings[t];
+                for (int p = 0; p < postings.size; p++) {
+                    int productId = postings.ids[p];
+                    //-> A product under several expansions of a prefix is scored once, from its first one
+                    if (seenEarlier(driver, t, productId)) {
+                        continue;
+                    }
+                    float score = 0;
+                    for (Clause clause : clauses) {
+                        float clauseScore = clause.score(productId);
+                        if (clauseScore <= 0) {
+                            score = -1;
+                            break;
+                        }
+                        score += clauseScore;
+                    }
+                    if (score > 0) {
+                        topK.offer(productId, score);
+                    }
+                }
+            }
+            return topK.toSortedIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //-> Lower-cased runs of letters and digits
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    //-> Helper methods
+    private static Map<String, Float> weigh(String name, String description) {
+        Map<String, Float> counts = new HashMap<>();
+        for (String word : tokenize(name)) {
+            counts.merge(word, NAME_BOOST, Float::sum);
+        }
+        for (String word : tokenize(description)) {
+            counts.merge(word, 1.0f, Float::sum);
+        }
+        //-> Dampened so a word repeated in a long description doesn't drown out a name match
+        counts.replaceAll((word, count) -> (float) Math.log1p(count));
+        return counts;
+    }
+
+    private Clause clause(String word, boolean prefix) {
+        List<Postings> matches = new ArrayList<>();
+        List<Float> factors = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            matches.add(exact);
+            factors.add(1.0f);
+        }
+        if (prefix) {
+            for (Map.Entry<String, Postings> entry : terms.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                if (matches.size() >= maxPrefixTerms) {
+                    break;
+                }
+                matches.add(entry.getValue());
+                factors.add(PREFIX_PENALTY);
+            }
+        }
+
+        Clause clause = new Clause(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Postings postings = matches.get(i);
+            clause.postings[i] = postings;
+            clause.idf[i] = factors.get(i) * (float) Math.log(1.0 + (double) documentCount / postings.size);
+            clause.documentFrequency += postings.size;
+        }
+        return clause;
+    }
+
+    private static boolean seenEarlier(Clause clause, int termIndex, int productId) {
+        for (int t = 0; t < termIndex; t++) {
+            if (clause.postings[t].indexOf(productId) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //-> Sorted product ids of one term, with the weight of the term in each product
+    private static class Postings {
+        private int[] ids = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        //-> Ids mostly arrive in increasing order, so this is usually an append
+        private boolean put(int productId, float weight) {
+            int index = size > 0 && ids[size - 1] < productId ? -(size + 1) : indexOf(productId);
+            if (index >= 0) {
+                weights[index] = weight;
+                return false;
+            }
+            index = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            ids[index] = productId;
+            weights[index] = weight;
+            size++;
+            return true;
+        }
+
+        private boolean remove(int productId) {
+            int index = indexOf(productId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private int indexOf(int productId) {
+            return Arrays.binarySearch(ids, 0, size, productId);
+        }
+    }
+
+    //-> The terms one query word matches, with their idf (already scaled down for prefix matches)
+    private static class Clause {
+        private final Postings[] postings;
+        private final float[] idf;
+        private long documentFrequency;
+
+        private Clause(int termCount) {
+            this.postings = new Postings[termCount];
+            this.idf = new float[termCount];
+        }
+
+        //-> Best score among the matching terms, 0 when the product matches none of them
+        private float score(int productId) {
+            float best = 0;
+            for (int t = 0; t < postings.length; t++) {
+                int index = postings[t].indexOf(productId);
+                if (index >= 0) {
+                    best = Math.max(best, idf[t] * postings[t].weights[index]);
+                }
+            }
+            return best;
+        }
+    }
+
+    //-> Bounded min-heap on score, so collecting the top k never sorts the whole candidate set
+    private static class TopK {
+        private final int[] ids;
+        private final float[] scores;
+        private int size;
+
+        private TopK(int limit) {
+            this.ids = new int[limit];
+            this.scores = new float[limit];
+        }
+
+        private void offer(int productId, float score) {
+            if (size < ids.length) {
+                ids[size] = productId;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                ids[0] = productId;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        private int[] toSortedIds() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (scores[parent] <= scores[index]) {
+                    break;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(smallest, index);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hexaware.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+//-> Picks the DataSource for a read: replicas in round robin, the primary when there are none
+//-> or when the customer wrote within the last stickinessMillis (so they read their own writes)
+public class ReadRouter {
+    //-> Writes between two sweeps of expired sticky entries
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long stickinessMillis;
+    //-> Customer id -> time their sticky window ends. Bounded by time only, never by size, so an entry is
+    //-> not evicted early however many customers write within one window
+    private final Map<Integer, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSinceSweep = new AtomicInteger();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    //-> stickinessMillis <= 0 sends every read to the replicas regardless of recent writes
+    public ReadRouter(DataSource primary, List<DataSource> replicas, long stickinessMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.stickinessMillis = stickinessMillis;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    //-> Reads that belong to no customer (catalog lookups)
+    public DataSource forRead() {
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    public DataSource forCustomerRead(int customerId) {
+        Long until = stickyUntil.get(customerId);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) {
+                return primary;
+            }
+            stickyUntil.remove(customerId, until);
+        }
+        return forRead();
+    }
+
+    //-> Called after every write made on behalf of a customer, restarts their sticky window
+    public void customerWrote(int customerId) {
+        if (stickinessMillis <= 0 || replicas.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        stickyUntil.put(customerId, now + stickinessMillis);
+        if (writesSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            writesSinceSweep.set(0);
+            stickyUntil.values().removeIf(until -> until <= now);
+        }
+    }
+}
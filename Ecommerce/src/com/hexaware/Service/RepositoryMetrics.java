@@ -0,0 +1,171 @@
+package com.hexaware.Service;
+
+import com.hexaware.Dao.OrderProcessorRepository;
+import com.hexaware.Util.DBPropertyUtil;
+import com.hexaware.Util.QueryCounter;
+import com.hexaware.Util.ThreadUtil;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class RepositoryMetrics implements AutoCloseable {
+    private final String name;
+    private final Map<String, OperationStats> operations = new TreeMap<>();
+    private ScheduledExecutorService dumper;
+
+    //-> One OperationStats per repository method, each registered as an MXBean under the given name
+    public RepositoryMetrics(String name) {
+        this.name = name;
+        for (Method method : OrderProcessorRepository.class.getMethods()) {
+            operations.computeIfAbsent(method.getName(), OperationStats::new);
+        }
+        registerMBeans();
+    }
+
+    //-> Wraps the repository when metrics.enabled is set, metrics.dumpIntervalSeconds > 0 adds a periodic text dump
+    public static OrderProcessorRepository instrument(OrderProcessorRepository repository, Properties properties) {
+        if (!DBPropertyUtil.getBoolean(properties, "metrics.enabled", true)) {
+            return repository;
+        }
+        RepositoryMetrics metrics = new RepositoryMetrics(properties.getProperty("metrics.name", "default"));
+        long interval = DBPropertyUtil.getLong(properties, "metrics.dumpIntervalSeconds", 0);
+        if (interval > 0) {
+            String dumpFile = properties.getProperty("metrics.dumpFile", "");
+            try {
+                PrintStream out = dumpFile.isBlank() ? System.out : new PrintStream(new FileOutputStream(dumpFile, true), true);
+                metrics.startDump(interval, out);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+        return metrics.instrument(repository);
+    }
+
+    public OrderProcessorRepository instrument(OrderProcessorRepository repository) {
+        return (OrderProcessorRepository) Proxy.newProxyInstance(OrderProcessorRepository.class.getClassLoader(),
+                new Class<?>[] { OrderProcessorRepository.class }, new Recorder(repository));
+    }
+
+    public OperationStats getOperation(String operation) {
+        return operations.get(operation);
+    }
+
+    public Collection<OperationStats> getOperations() {
+        return operations.values();
+    }
+
+    public synchronized void startDump(long intervalSeconds, PrintStream out) {
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(ThreadUtil.daemonThreadFactory("metrics-dump"));
+            dumper.scheduleAtFixedRate(() -> dump(out), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void dump(PrintStream out) {
+        StringBuilder text = new StringBuilder();
+        text.append("=== Repository metrics [").append(name).append("] ").append(LocalDateTime.now()).append(" ===\n");
+        text.append("statements=").append(QueryCounter.getTotalStatements())
+            .append(" roundTrips=").append(QueryCounter.getTotalRoundTrips())
+            .append(" sqlErrors=").append(QueryCounter.getTotalSqlErrors()).append('\n');
+        for (OperationStats stats : operations.values()) {
+            if (stats.getCalls() > 0) {
+                text.append(stats).append('\n');
+            }
+        }
+        out.print(text);
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String operation : operations.keySet()) {
+            try {
+                ObjectName objectName = objectName(operation);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    //-> Helper methods
+    private void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            try {
+                ObjectName objectName = objectName(entry.getKey());
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+                server.registerMBean(entry.getValue(), objectName);
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private ObjectName objectName(String operation) throws JMException {
+        return new ObjectName("com.hexaware:type=RepositoryMetrics,name=" + ObjectName.quote(name) + ",operation=" + operation);
+    }
+
+    //-> Times each call and attributes the statements, round trips and SQL errors the calling thread made during it
+    private class Recorder implements InvocationHandler {
+        private final OrderProcessorRepository repository;
+
+        private Recorder(OrderProcessorRepository repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            OperationStats stats = operations.get(method.getName());
+            if (stats == null || method.getDeclaringClass() == Object.class) {
+                return method.invoke(repository, args);
+            }
+
+            long statements = QueryCounter.currentStatements();
+            long roundTrips = QueryCounter.currentRoundTrips();
+            long sqlErrors = QueryCounter.currentSqlErrors();
+            long start = System.nanoTime();
+            boolean thrown = false;
+            Object result = null;
+            try {
+                result = method.invoke(repository, args);
+                return result;
+            } catch (InvocationTargetException e) {
+                thrown = true;
+                throw e.getCause();
+            } finally {
+                stats.record(System.nanoTime() - start, thrown, Boolean.FALSE.equals(result),
+                        QueryCounter.currentStatements() - statements,
+                        QueryCounter.currentRoundTrips() - roundTrips,
+                        QueryCounter.currentSqlErrors() - sqlErrors);
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.hexaware.Service;
+
+import com.hexaware.Entity.CustomerValue;
+import com.hexaware.Entity.ProductSales;
+import com.hexaware.Util.ThreadUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToDoubleFunction;
+
+import javax.sql.DataSource;
+
+//-> Running sales aggregates per product and per customer, so reports never query the OLTP tables.
+//-> refresh() reads only orders newer than the last load and adds their lines to the aggregates in place,
+//-> so a refresh costs the size of the delta; reports read the aggregates under a shared lock.
+//-> Revenue uses the price of each line as ordered: unit_price from order_history_lines when the read model is
+//-> kept, otherwise the catalog price at the time the line is first loaded (never re-priced afterwards).
+public class SalesAnalytics implements AutoCloseable {
+    private final DataSource dataSource;
+    private final int refreshOverlap;
+    private final int fetchSize;
+    private final boolean fromHistoryLines;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService refresher;
+
+    //-> Aggregates, guarded by lock
+    private final Map<Integer, Integer> productSlots = new HashMap<>();
+    private int[] productIds = new int[16];
+    private String[] productNames = new String[16];
+    private long[] productUnits = new long[16];
+    private double[] productRevenue = new double[16];
+    private final Map<Integer, Integer> customerSlots = new HashMap<>();
+    private int[] customerIds = new int[16];
+    private int[] customerOrders = new int[16];
+    private double[] customerValues = new double[16];
+    private final BitSet loadedOrders = new BitSet();
+    private int maxOrderId;
+    private int orderCount;
+    private int itemCount;
+    private int ordersWithoutCustomer;
+    private double totalRevenue;
+
+    //-> refreshOverlap re-reads that many ids below the newest loaded order, to catch orders from other
+    //-> nodes' id blocks that committed late; orders already loaded are skipped
+    public SalesAnalytics(DataSource dataSource, int refreshOverlap, int fetchSize, boolean fromHistoryLines) {
+        this.dataSource = dataSource;
+        this.refreshOverlap = Math.max(0, refreshOverlap);
+        this.fetchSize = fetchSize;
+        this.fromHistoryLines = fromHistoryLines;
+    }
+
+    //-> Loads orders not seen yet and adds them to the aggregates, returns the number of orders added
+    public synchronized int refresh() throws SQLException {
+        String orderSql = fromHistoryLines
+                ? "SELECT o.order_id, o.customer_id, o.total_price, h.product_id, h.product_name, h.unit_price, h.quantity " +
+                  "FROM orders o LEFT JOIN order_history_lines h ON h.customer_id = o.customer_id AND h.order_id = o.order_id " +
+                  "WHERE o.order_id > ? ORDER BY o.order_id, h.line_no"
+                : "SELECT o.order_id, o.customer_id, o.total_price, oi.product_id, p.product_name, p.price AS unit_price, oi.quantity " +
+                  "FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+                  "LEFT JOIN products p ON p.product_id = oi.product_id " +
+                  "WHERE o.order_id > ? ORDER BY o.order_id";
+
+        //-> Only the delta is buffered; loadedOrders is written by this (synchronized) method alone, so reading it here is safe
+        Delta delta = new Delta();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(orderSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            statement.setInt(1, Math.max(0, maxOrderId - refreshOverlap));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int currentOrderId = -1;
+                boolean skip = false;
+                while (resultSet.next()) {
+                    int orderId = resultSet.getInt("order_id");
+                    if (orderId != currentOrderId) {
+                        currentOrderId = orderId;
+                        skip = loadedOrders.get(orderId);
+                        if (!skip) {
+                            int customerId = resultSet.getInt("customer_id");
+                            delta.addOrder(orderId, resultSet.wasNull() ? null : customerId, resultSet.getDouble("total_price"));
+                        }
+                    }
+                    int productId = resultSet.getInt("product_id");
+                    if (skip || resultSet.wasNull()) {
+                        continue;
+                    }
+                    double unitPrice = resultSet.getDouble("unit_price");
+                    //-> A line whose product is gone (and has no stored price) still counts its units
+                    if (resultSet.wasNull()) {
+                        unitPrice = 0;
+                    }
+                    delta.addLine(productId, resultSet.getString("product_name"), resultSet.getInt("quantity"), unitPrice);
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            apply(delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return delta.orderCount;
+    }
+
+    public synchronized void startRefresh(long intervalSeconds) {
+        if (refresher == null && intervalSeconds > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(ThreadUtil.daemonThreadFactory("sales-analytics"));
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    refresh();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }, 0, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    public int getOrderCount() {
+        lock.readLock().lock();
+        try {
+            return orderCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getItemCount() {
+        lock.readLock().lock();
+        try {
+            return itemCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //-> Orders with a NULL customer_id: counted in the total revenue, left out of the customer ranking
+    public int getOrdersWithoutCustomer() {
+        lock.readLock().lock();
+        try {
+            return ordersWithoutCustomer;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //-> Units and revenue of every product that sold, highest revenue first
+    public List<ProductSales> getRevenueByProduct() {
+        lock.readLock().lock();
+        try {
+            return productSales(top(productSlots.size(), productSlots.size(), j -> productRevenue[j], productUnits));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //-> The limit products with the most units sold
+    public List<ProductSales> getTopSellers(int limit) {
+        lock.readLock().lock();
+        try {
+            return productSales(top(productSlots.size(), limit, j -> productUnits[j], productUnits));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //-> The limit customers with the highest summed order totals
+    public List<CustomerValue> getTopCustomersByLifetimeValue(int limit) {
+        lock.readLock().lock();
+        try {
+            List<CustomerValue> result = new ArrayList<>();
+            for (int c : top(customerSlots.size(), limit, c -> customerValues[c], null)) {
+                result.add(new CustomerValue(customerIds[c], customerOrders[c], customerValues[c]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getTotalRevenue() {
+        lock.readLock().lock();
+        try {
+            return totalRevenue;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //-> Helper methods
+    //-> Called with the write lock held
+    private void apply(Delta delta) {
+        for (int i = 0; i < delta.orderCount; i++) {
+            loadedOrders.set(delta.orderIds[i]);
+            maxOrderId = Math.max(maxOrderId, delta.orderIds[i]);
+            totalRevenue += delta.orderTotals[i];
+            if (delta.orderCustomers[i] == null) {
+                ordersWithoutCustomer++;
+                continue;
+            }
+            int c = customerSlot(delta.orderCustomers[i]);
+            customerOrders[c]++;
+            customerValues[c] += delta.orderTotals[i];
+        }
+        for (int i = 0; i < delta.lineCount; i++) {
+            int j = productSlot(delta.lineProducts[i]);
+            if (delta.lineNames[i] != null) {
+                productNames[j] = delta.lineNames[i];
+            }
+            productUnits[j] += delta.lineQuantities[i];
+            productRevenue[j] += delta.lineQuantities[i] * delta.linePrices[i];
+        }
+        orderCount += delta.orderCount;
+        itemCount += delta.lineCount;
+    }
+
+    private int productSlot(int productId) {
+        Integer slot = productSlots.get(productId);
+        if (slot != null) {
+            return slot;
+        }
+        int j = productSlots.size();
+        if (j == productIds.length) {
+            productIds = Arrays.copyOf(productIds, j * 2);
+            productNames = Arrays.copyOf(productNames, j * 2);
+            productUnits = Arrays.copyOf(productUnits, j * 2);
+            productRevenue = Arrays.copyOf(productRevenue, j * 2);
+        }
+        productIds[j] = productId;
+        productSlots.put(productId, j);
+        return j;
+    }
+
+    private int customerSlot(int customerId) {
+        Integer slot = customerSlots.get(customerId);
+        if (slot != null) {
+            return slot;
+        }
+        int c = customerSlots.size();
+        if (c == customerIds.length) {
+            customerIds = Arrays.copyOf(customerIds, c * 2);
+            customerOrders = Arrays.copyOf(customerOrders, c * 2);
+            customerValues = Arrays.copyOf(customerValues, c * 2);
+        }
+        customerIds[c] = customerId;
+        customerSlots.put(customerId, c);
+        return c;
+    }
+
+    private List<ProductSales> productSales(int[] slots) {
+        List<ProductSales> result = new ArrayList<>(slots.length);
+        for (int j : slots) {
+            result.add(new ProductSales(productIds[j], productNames[j], productUnits[j], productRevenue[j]));
+        }
+        return result;
+    }
+
+    //-> Indexes of the limit largest values, largest first; with units given, slots that sold nothing are left out
+    private static int[] top(int count, int limit, IntToDoubleFunction value, long[] units) {
+        Comparator<Integer> byValue = Comparator.comparingDouble(value::applyAsDouble);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(byValue);
+        for (int i = 0; i < count && limit > 0; i++) {
+            if (units != null && units[i] == 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(i);
+            } else if (value.applyAsDouble(i) > value.applyAsDouble(heap.peek())) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll();
+        }
+        return result;
+    }
+
+    //-> Orders and lines read by one refresh, before they are added to the aggregates
+    private static final class Delta {
+        private int[] orderIds = new int[64];
+        private Integer[] orderCustomers = new Integer[64];
+        private double[] orderTotals = new double[64];
+        private int orderCount;
+        private int[] lineProducts = new int[256];
+        private String[] lineNames = new String[256];
+        private int[] lineQuantities = new int[256];
+        private double[] linePrices = new double[256];
+        private int lineCount;
+
+        private void addOrder(int orderId, Integer customerId, double total) {
+            if (orderCount == orderIds.length) {
+                orderIds = Arrays.copyOf(orderIds, orderCount * 2);
+                orderCustomers = Arrays.copyOf(orderCustomers, orderCount * 2);
+                orderTotals = Arrays.copyOf(orderTotals, orderCount * 2);
+            }
+            orderIds[orderCount] = orderId;
+            orderCustomers[orderCount] = customerId;
+            orderTotals[orderCount] = total;
+            orderCount++;
+        }
+
+        private void addLine(int productId, String name, int quantity, double unitPrice) {
+            if (lineCount == lineProducts.length) {
+                lineProducts = Arrays.copyOf(lineProducts, lineCount * 2);
+                lineNames = Arrays.copyOf(lineNames, lineCount * 2);
+                lineQuantities = Arrays.copyOf(lineQuantities, lineCount * 2);
+                linePrices = Arrays.copyOf(linePrices, lineCount * 2);
+            }
+            lineProducts[lineCount] = productId;
+            lineNames[lineCount] = name;
+            lineQuantities[lineCount] = quantity;
+            linePrices[lineCount] = unitPrice;
+            lineCount++;
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package com.hexaware.Util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+public class ConnectionPool implements DataSource, AutoCloseable {
+    //-> Connections idle for less than this are handed out without running the validation query
+    private static final long VALIDATION_IDLE_MILLIS = 1000;
+
+    private final PoolConfig config;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final LongAdder leasesGranted = new LongAdder();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsDestroyed = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile boolean closed;
+    private PrintWriter logWriter;
+
+    public ConnectionPool(PoolConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+
+        //-> Pre-fill the pool up to its minimum size
+        try {
+            for (int i = 0; i < config.getMinSize(); i++) {
+                idle.offerLast(openConnection());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + config.getAcquireTimeoutMillis() + "ms waiting for a pooled connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection.", e);
+        }
+
+        try {
+            //-> Most recently returned connection first, so the hot ones stay warm
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            leasesGranted.increment();
+            return lease(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the credentials from the pool configuration.");
+    }
+
+    public PoolStats getStats() {
+        int total = totalConnections.get();
+        int idleCount = idle.size();
+        return new PoolStats(total, idleCount, Math.max(0, total - idleCount), permits.getQueueLength(),
+                leasesGranted.sum(), acquireTimeouts.sum(), connectionsCreated.sum(), connectionsDestroyed.sum(),
+                statementCacheHits.sum(), statementCacheMisses.sum());
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    //-> Helper methods
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = DBConnUtil.getDBConnection(config.getUrl(), config.getUsername(), config.getPassword(),
+                config.getDriverProperties());
+        totalConnections.incrementAndGet();
+        connectionsCreated.increment();
+        return new PooledConnection(physical, config.getStatementCacheSize());
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (config.getMaxLifetimeMillis() > 0 && now - pooled.createdAt > config.getMaxLifetimeMillis()) {
+            return false;
+        }
+        if (now - pooled.lastReleasedAt < VALIDATION_IDLE_MILLIS) {
+            return true;
+        }
+
+        try {
+            String validationQuery = config.getValidationQuery();
+            if (validationQuery == null || validationQuery.isEmpty()) {
+                return pooled.physical.isValid((int) Math.max(1, config.getAcquireTimeoutMillis() / 1000));
+            }
+            try (Statement statement = pooled.physical.createStatement();
+                 ResultSet resultSet = statement.executeQuery(validationQuery)) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (pooled.broken || closed) {
+                destroy(pooled);
+                return;
+            }
+            //-> Leave the connection the way the next borrower expects to find it
+            try {
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                destroy(pooled);
+                return;
+            }
+            //-> Cached statements the borrower never closed can't be trusted by the next one
+            pooled.statementCache.values().removeIf(statement -> {
+                if (statement.inUse) {
+                    statement.closeQuietly();
+                }
+                return statement.inUse;
+            });
+            pooled.lastReleasedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        connectionsDestroyed.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Connection lease(PooledConnection pooled) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new LeasedConnection(pooled));
+    }
+
+    //-> Cache key for the prepareStatement variants worth caching, null for the rest
+    private static String statementCacheKey(Object[] args) {
+        String sql = (String) args[0];
+        if (args.length == 1) {
+            return "|" + sql;
+        }
+        if (args.length == 2 && args[1] instanceof Integer) {
+            return "k" + args[1] + "|" + sql;
+        }
+        if (args.length == 3 && args[1] instanceof Integer && args[2] instanceof Integer) {
+            return "t" + args[1] + "," + args[2] + "|" + sql;
+        }
+        return null;
+    }
+
+    //-> Physical connection plus the bookkeeping the pool needs for it
+    private static class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private final Map<String, CachedStatement> statementCache;
+        private long lastReleasedAt = createdAt;
+        private boolean broken;
+
+        private PooledConnection(Connection physical, int statementCacheSize) {
+            this.physical = physical;
+            //-> Least recently used statement is closed once the cache is full, or as soon as its current user is done
+            this.statementCache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    CachedStatement statement = eldest.getValue();
+                    statement.evicted = true;
+                    if (!statement.inUse) {
+                        statement.closeQuietly();
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+
+    //-> A prepared statement that outlives the caller's close() and is handed out again for the same SQL
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private boolean inUse;
+        private boolean evicted;
+        private boolean settingsChanged;
+        private boolean customized;
+
+        private CachedStatement(PreparedStatement physical) throws SQLException {
+            this.physical = physical;
+            this.defaultFetchSize = physical.getFetchSize();
+            this.defaultMaxRows = physical.getMaxRows();
+            this.defaultQueryTimeout = physical.getQueryTimeout();
+        }
+
+        //-> Max rows first: drivers such as H2 refuse a fetch size above the max rows still in place
+        private void restoreSettings() throws SQLException {
+            physical.setMaxRows(defaultMaxRows);
+            physical.setFetchSize(defaultFetchSize);
+            physical.setQueryTimeout(defaultQueryTimeout);
+            settingsChanged = false;
+        }
+
+        private void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    //-> Handle given to callers; close() hands the physical connection back to the pool
+    private class LeasedConnection implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        private LeasedConnection(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "LeasedConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+
+            if ("prepareStatement".equals(method.getName()) && config.getStatementCacheSize() > 0) {
+                String key = statementCacheKey(args);
+                if (key != null) {
+                    return prepareCached(key, proxy, method, args);
+                }
+            }
+
+            Object result = invokePhysical(method, args);
+            switch (method.getName()) {
+                case "commit":
+                case "rollback":
+                case "setAutoCommit":
+                    QueryCounter.roundTrip();
+                    break;
+                default:
+                    break;
+            }
+            //-> Statements are wrapped so their executions show up in the query counters
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return wrapStatement(method.getReturnType(), (Statement) result, proxy, null);
+            }
+            return result;
+        }
+
+        private Object prepareCached(String key, Object proxy, Method method, Object[] args) throws Throwable {
+            CachedStatement cached = pooled.statementCache.get(key);
+            if (cached != null && cached.inUse) {
+                //-> Same SQL already open in this lease, the second copy is not cached
+                statementCacheMisses.increment();
+                return wrapStatement(method.getReturnType(), (Statement) invokePhysical(method, args), proxy, null);
+            }
+            if (cached != null) {
+                statementCacheHits.increment();
+            } else {
+                statementCacheMisses.increment();
+                PreparedStatement physical = (PreparedStatement) invokePhysical(method, args);
+                try {
+                    cached = new CachedStatement(physical);
+                } catch (SQLException e) {
+                    physical.close();
+                    throw e;
+                }
+                pooled.statementCache.put(key, cached);
+            }
+            cached.inUse = true;
+            return wrapStatement(method.getReturnType(), cached.physical, proxy, cached);
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw failed(e.getCause());
+            }
+        }
+
+        //-> SQLState class 08 means the link itself is gone, so the connection is never reused
+        private Throwable failed(Throwable cause) {
+            if (cause instanceof SQLException) {
+                QueryCounter.sqlError();
+                for (SQLException e = (SQLException) cause; e != null; e = e.getNextException()) {
+                    if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+                        pooled.broken = true;
+                        break;
+                    }
+                }
+            }
+            return cause;
+        }
+
+        private Object wrapStatement(Class<?> type, Statement statement, Object connectionProxy, CachedStatement cached) {
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { type },
+                    new CountingStatement(statement, (Connection) connectionProxy, cached));
+        }
+
+        //-> Statement handle that reports executions, batches and SQL errors to QueryCounter,
+        //-> and for cached statements turns close() into a reset for the next user
+        private class CountingStatement implements InvocationHandler {
+            private final Statement statement;
+            private final Connection connection;
+            private final CachedStatement cached;
+            private final List<ResultSet> openResults = new ArrayList<>(1);
+            private boolean closed;
+
+            private CountingStatement(Statement statement, Connection connection, CachedStatement cached) {
+                this.statement = statement;
+                this.connection = connection;
+                this.cached = cached;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getConnection":
+                        return connection;
+                    case "close":
+                        if (cached == null) {
+                            break;
+                        }
+                        if (!closed) {
+                            closed = true;
+                            giveBack();
+                        }
+                        return null;
+                    case "isClosed":
+                        if (cached != null) {
+                            return closed;
+                        }
+                        break;
+                    case "addBatch":
+                        QueryCounter.statementBatched();
+                        break;
+                    case "setFetchSize":
+                    case "setMaxRows":
+                    case "setQueryTimeout":
+                        //-> Put back to what the statement was prepared with when it is handed back
+                        if (cached != null) {
+                            cached.settingsChanged = true;
+                        }
+                        break;
+                    case "setLargeMaxRows":
+                    case "setFetchDirection":
+                    case "setMaxFieldSize":
+                    case "setEscapeProcessing":
+                    case "setPoolable":
+                    case "setCursorName":
+                    case "closeOnCompletion":
+                        //-> Rarely changed settings the next borrower would inherit; such a statement is closed instead of cached again
+                        if (cached != null) {
+                            cached.customized = true;
+                        }
+                        break;
+                    case "executeBatch":
+                    case "executeLargeBatch":
+                        QueryCounter.roundTrip();
+                        break;
+                    case "execute":
+                    case "executeQuery":
+                    case "executeUpdate":
+                    case "executeLargeUpdate":
+                        QueryCounter.statementExecuted();
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                if (closed) {
+                    throw new SQLException("Statement is closed.");
+                }
+
+                try {
+                    Object result = method.invoke(statement, args);
+                    //-> Result sets are tracked so a cached statement never leaves one open for the next user
+                    if (cached != null && result instanceof ResultSet) {
+                        openResults.add((ResultSet) result);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    //-> Executions are where a dropped link usually shows up
+                    throw failed(e.getCause());
+                }
+            }
+
+            private void giveBack() {
+                try {
+                    for (ResultSet resultSet : openResults) {
+                        resultSet.close();
+                    }
+                    openResults.clear();
+                    if (!cached.evicted && !cached.customized && !pooled.broken) {
+                        cached.physical.clearParameters();
+                        cached.physical.clearBatch();
+                        if (cached.settingsChanged) {
+                            cached.restoreSettings();
+                        }
+                        cached.inUse = false;
+                        return;
+                    }
+                } catch (SQLException e) {
+                    //-> Falls through to the drop below
+                }
+                //-> A statement that can't be reset is dropped from the cache. Some drivers (H2) keep the query timeout
+                //-> on the session, so it is reset before the close, and the connection is discarded when that fails too
+                if (!cached.evicted) {
+                    pooled.statementCache.values().remove(cached);
+                }
+                if (!pooled.broken) {
+                    try {
+                        cached.physical.setQueryTimeout(cached.defaultQueryTimeout);
+                    } catch (SQLException e) {
+                        pooled.broken = true;
+                    }
+                }
+                cached.inUse = false;
+                cached.closeQuietly();
+            }
+        }
+    }
+
+    //-> DataSource boilerplate
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        config.setAcquireTimeoutMillis(seconds * 1000L);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) (config.getAcquireTimeoutMillis() / 1000);
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,27 @@
+package com.hexaware.Util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class CursorUtil {
+    //-> Opaque page token wrapping the last key seen, so callers don't build seek predicates themselves
+    public static String encode(int lastKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("k:" + lastKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    //-> A null or empty cursor means the first page
+    public static int decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!token.startsWith("k:")) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            return Integer.parseInt(token.substring(2));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
\ No newline at end of file
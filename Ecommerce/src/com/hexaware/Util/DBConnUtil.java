@@ -3,6 +3,7 @@ package com.hexaware.Util;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public class DBConnUtil {
     public static Connection getDBConnection(String connectionString) throws SQLException {
@@ -16,4 +17,31 @@ public class DBConnUtil {
             throw new SQLException("JDBC Driver not found", e);
         }
     }
+
+    public static Connection getDBConnection(String url, String username, String password) throws SQLException {
+        return getDBConnection(url, username, password, new Properties());
+    }
+
+    public static Connection getDBConnection(String url, String username, String password, Properties driverProperties) throws SQLException {
+        Properties info = new Properties();
+        info.putAll(driverProperties);
+        if (username != null) {
+            info.setProperty("user", username);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+
+        try {
+            //-> Only MySQL needs its driver loaded explicitly, others (e.g. H2) register themselves
+            if (url.startsWith("jdbc:mysql:")) {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            }
+
+            //-> Establish the connection
+            return DriverManager.getConnection(url, info);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC Driver not found", e);
+        }
+    }
 } 
\ No newline at end of file
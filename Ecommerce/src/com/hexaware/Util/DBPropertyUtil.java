@@ -2,6 +2,8 @@ package com.hexaware.Util;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class DBPropertyUtil {
@@ -14,10 +16,77 @@ public class DBPropertyUtil {
             String url = properties.getProperty("db.url");
             String username = properties.getProperty("db.username");
             String password = properties.getProperty("db.password");
-            connectionString = url + "?user=" + username + "&password=" + password;
+            connectionString = url + (url.contains("?") ? "&" : "?") + "user=" + username + "&password=" + password;
         } catch (IOException e) {
             e.printStackTrace();
         }
         return connectionString;
     }
-} 
\ No newline at end of file
+
+    public static PoolConfig getPoolConfig(String propertyFileName) {
+        Properties properties = getProperties(propertyFileName);
+        PoolConfig config = new PoolConfig(properties.getProperty("db.url"),
+                properties.getProperty("db.username"), properties.getProperty("db.password"));
+
+        config.setMinSize(getInt(properties, "db.pool.minSize", config.getMinSize()));
+        config.setMaxSize(getInt(properties, "db.pool.maxSize", config.getMaxSize()));
+        config.setAcquireTimeoutMillis(getLong(properties, "db.pool.acquireTimeoutMillis", config.getAcquireTimeoutMillis()));
+        config.setValidationQuery(properties.getProperty("db.pool.validationQuery", config.getValidationQuery()));
+        config.setMaxLifetimeMillis(getLong(properties, "db.pool.maxLifetimeMillis", config.getMaxLifetimeMillis()));
+        config.setStatementCacheSize(getInt(properties, "db.pool.statementCacheSize", config.getStatementCacheSize()));
+
+        //-> Every db.driver.* entry goes to the JDBC driver as-is, e.g. db.driver.useServerPrepStmts=true
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("db.driver.")) {
+                config.getDriverProperties().setProperty(key.substring("db.driver.".length()), properties.getProperty(key));
+            }
+        }
+        return config;
+    }
+
+    //-> Read replicas from db.replica.urls (comma separated), with the primary's pool settings and,
+    //-> unless db.replica.username / db.replica.password are set, its credentials
+    public static List<PoolConfig> getReplicaPoolConfigs(String propertyFileName) {
+        Properties properties = getProperties(propertyFileName);
+        List<PoolConfig> configs = new ArrayList<>();
+        String urls = properties.getProperty("db.replica.urls", "");
+
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            PoolConfig config = getPoolConfig(propertyFileName);
+            config.setUrl(url.trim());
+            config.setUsername(properties.getProperty("db.replica.username", config.getUsername()));
+            config.setPassword(properties.getProperty("db.replica.password", config.getPassword()));
+            configs.add(config);
+        }
+        return configs;
+    }
+
+    public static Properties getProperties(String propertyFileName) {
+        Properties properties = new Properties();
+
+        try (FileInputStream input = new FileInputStream(propertyFileName)) {
+            properties.load(input);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return properties;
+    }
+
+    public static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public static boolean getBoolean(Properties properties, String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
\ No newline at end of file
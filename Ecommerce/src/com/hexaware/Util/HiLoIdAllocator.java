@@ -0,0 +1,102 @@
+package com.hexaware.Util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+//-> Hands out ids from blocks reserved in the id_blocks table, so inserts can carry their own primary key.
+//-> Each block is taken under the row lock of its sequence, which keeps several app nodes from overlapping.
+public class HiLoIdAllocator {
+    private final DataSource dataSource;
+    private final String sequenceName;
+    private final String table;
+    private final String idColumn;
+    private final int blockSize;
+    private long next;
+    private long limit;
+
+    //-> table and idColumn seed a new sequence past the ids already in use
+    public HiLoIdAllocator(DataSource dataSource, String sequenceName, String table, String idColumn, int blockSize) {
+        this.dataSource = dataSource;
+        this.sequenceName = sequenceName;
+        this.table = table;
+        this.idColumn = idColumn;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public synchronized long next() throws SQLException {
+        if (next >= limit) {
+            next = reserveBlock(blockSize);
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    public synchronized int nextInt() throws SQLException {
+        return Math.toIntExact(next());
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    //-> Helper methods
+    private long reserveBlock(int size) throws SQLException {
+        String updateSql = "UPDATE id_blocks SET next_value = next_value + ? WHERE sequence_name = ?";
+        String selectSql = "SELECT next_value FROM id_blocks WHERE sequence_name = ?";
+
+        //-> The pool rolls back and restores auto-commit on close
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (int attempt = 0; attempt < 2; attempt++) {
+                    try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+                        statement.setInt(1, size);
+                        statement.setString(2, sequenceName);
+                        if (statement.executeUpdate() > 0) {
+                            try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+                                select.setString(1, sequenceName);
+                                try (ResultSet resultSet = select.executeQuery()) {
+                                    resultSet.next();
+                                    long end = resultSet.getLong(1);
+                                    connection.commit();
+                                    return end - size;
+                                }
+                            }
+                        }
+                    }
+                    //-> First use of this sequence: start after the highest id already in the table
+                    if (attempt == 0) {
+                        seed(connection);
+                    }
+                }
+                throw new SQLException("Could not reserve an id block for sequence " + sequenceName + ".");
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void seed(Connection connection) throws SQLException {
+        String seedSql = "INSERT INTO id_blocks (sequence_name, next_value) SELECT ?, COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table;
+        try (PreparedStatement statement = connection.prepareStatement(seedSql)) {
+            statement.setString(1, sequenceName);
+            statement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            //-> A duplicate key (SQLState 23xxx) means another node seeded it first, its row is used as is
+            connection.rollback();
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.hexaware.Util;
+
+import java.util.Properties;
+
+public class PoolConfig {
+    private String url;
+    private String username;
+    private String password;
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long acquireTimeoutMillis = 5000;
+    private String validationQuery = "SELECT 1";
+    private long maxLifetimeMillis = 30 * 60 * 1000L;
+    private int statementCacheSize = 64;
+    private Properties driverProperties = new Properties();
+
+    //-> Default & Parameterized Constructors
+    public PoolConfig() {}
+
+    public PoolConfig(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    //-> Getters and Setters
+    public String getUrl() {
+        return url;
+    }
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+    public void setValidationQuery(String validationQuery) {
+        this.validationQuery = validationQuery;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    //-> Prepared statements kept open per pooled connection, 0 turns the cache off
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    //-> Extra JDBC driver properties (e.g. useServerPrepStmts), passed along with the credentials
+    public Properties getDriverProperties() {
+        return driverProperties;
+    }
+    public void setDriverProperties(Properties driverProperties) {
+        this.driverProperties = driverProperties;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "url='" + url + '\'' +
+                ", username='" + username + '\'' +
+                ", minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", acquireTimeoutMillis=" + acquireTimeoutMillis +
+                ", validationQuery='" + validationQuery + '\'' +
+                ", maxLifetimeMillis=" + maxLifetimeMillis +
+                ", statementCacheSize=" + statementCacheSize +
+                ", driverProperties=" + driverProperties +
+                '}';
+    }
+}
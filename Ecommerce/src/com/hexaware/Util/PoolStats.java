@@ -0,0 +1,86 @@
+package com.hexaware.Util;
+
+public class PoolStats {
+    private final int totalConnections;
+    private final int idleConnections;
+    private final int activeConnections;
+    private final int waitingThreads;
+    private final long leasesGranted;
+    private final long acquireTimeouts;
+    private final long connectionsCreated;
+    private final long connectionsDestroyed;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolStats(int totalConnections, int idleConnections, int activeConnections, int waitingThreads,
+                     long leasesGranted, long acquireTimeouts, long connectionsCreated, long connectionsDestroyed,
+                     long statementCacheHits, long statementCacheMisses) {
+        this.totalConnections = totalConnections;
+        this.idleConnections = idleConnections;
+        this.activeConnections = activeConnections;
+        this.waitingThreads = waitingThreads;
+        this.leasesGranted = leasesGranted;
+        this.acquireTimeouts = acquireTimeouts;
+        this.connectionsCreated = connectionsCreated;
+        this.connectionsDestroyed = connectionsDestroyed;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    //-> Getters
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getLeasesGranted() {
+        return leasesGranted;
+    }
+
+    public long getAcquireTimeouts() {
+        return acquireTimeouts;
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated;
+    }
+
+    public long getConnectionsDestroyed() {
+        return connectionsDestroyed;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "total=" + totalConnections +
+                ", idle=" + idleConnections +
+                ", active=" + activeConnections +
+                ", waiting=" + waitingThreads +
+                ", leasesGranted=" + leasesGranted +
+                ", acquireTimeouts=" + acquireTimeouts +
+                ", created=" + connectionsCreated +
+                ", destroyed=" + connectionsDestroyed +
+                ", statementCacheHits=" + statementCacheHits +
+                ", statementCacheMisses=" + statementCacheMisses +
+                '}';
+    }
+}
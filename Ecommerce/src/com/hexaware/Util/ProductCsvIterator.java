@@ -0,0 +1,104 @@
+package com.hexaware.Util;
+
+import com.hexaware.Entity.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+//-> Streams products from CSV lines "product_name,price,description,stockQuantity", one line read ahead at most
+public class ProductCsvIterator implements Iterator<Product>, AutoCloseable {
+    private final BufferedReader reader;
+    private String nextLine;
+    private long nextLineNumber;
+    private long lineNumber;
+
+    public ProductCsvIterator(Reader reader, boolean hasHeader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 64 * 1024);
+        if (hasHeader) {
+            readLine();
+        }
+        this.nextLine = readLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public Product next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        long currentLineNumber = nextLineNumber;
+        nextLine = readLine();
+
+        List<String> fields = splitLine(line);
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("Line " + currentLineNumber + ": expected 4 fields but found " + fields.size());
+        }
+        try {
+            return new Product(fields.get(0), Double.parseDouble(fields.get(1).trim()), fields.get(2),
+                    Integer.parseInt(fields.get(3).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + currentLineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    //-> Helper methods
+    private String readLine() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            nextLineNumber = lineNumber;
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //-> Comma separated, fields may be wrapped in double quotes with "" as an escaped quote
+    private static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,65 @@
+package com.hexaware.Util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//-> Counts SQL statements, round trips and SQL errors per thread (for per-call deltas) and process-wide
+public class QueryCounter {
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[3]);
+    private static final int STATEMENTS = 0;
+    private static final int ROUND_TRIPS = 1;
+    private static final int SQL_ERRORS = 2;
+
+    private static final LongAdder totalStatements = new LongAdder();
+    private static final LongAdder totalRoundTrips = new LongAdder();
+    private static final LongAdder totalSqlErrors = new LongAdder();
+
+    //-> A statement that went to the server on its own
+    public static void statementExecuted() {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS]++;
+        counts[ROUND_TRIPS]++;
+        totalStatements.increment();
+        totalRoundTrips.increment();
+    }
+
+    //-> A statement queued with addBatch, its round trip is counted when the batch is sent
+    public static void statementBatched() {
+        COUNTS.get()[STATEMENTS]++;
+        totalStatements.increment();
+    }
+
+    //-> executeBatch, commit, rollback and other calls that cost a trip to the server
+    public static void roundTrip() {
+        COUNTS.get()[ROUND_TRIPS]++;
+        totalRoundTrips.increment();
+    }
+
+    public static void sqlError() {
+        COUNTS.get()[SQL_ERRORS]++;
+        totalSqlErrors.increment();
+    }
+
+    public static long currentStatements() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    public static long currentRoundTrips() {
+        return COUNTS.get()[ROUND_TRIPS];
+    }
+
+    public static long currentSqlErrors() {
+        return COUNTS.get()[SQL_ERRORS];
+    }
+
+    public static long getTotalStatements() {
+        return totalStatements.sum();
+    }
+
+    public static long getTotalRoundTrips() {
+        return totalRoundTrips.sum();
+    }
+
+    public static long getTotalSqlErrors() {
+        return totalSqlErrors.sum();
+    }
+}
@@ -0,0 +1,60 @@
+package com.hexaware.Util;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SchemaUtil {
+    //-> Reads the statements under "Schema Design:" in the SQL Queries document, sample data is left out
+    public static List<String> readSchemaStatements(String sqlFileName) throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = null;
+        boolean inSchema = false;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(sqlFileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.startsWith("Schema Design")) {
+                    inSchema = true;
+                    continue;
+                }
+                if (!inSchema) {
+                    continue;
+                }
+                //-> The dashed separator closes the section
+                if (current == null && trimmed.startsWith("-----")) {
+                    break;
+                }
+
+                if (current == null) {
+                    String upper = trimmed.toUpperCase();
+                    if (!(upper.startsWith("CREATE ") || upper.startsWith("ALTER ") || upper.startsWith("INSERT "))) {
+                        continue;
+                    }
+                    current = new StringBuilder();
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current = null;
+                }
+            }
+        }
+        return statements;
+    }
+
+    public static void createSchema(Connection connection, String sqlFileName) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : readSchemaStatements(sqlFileName)) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -6,6 +6,9 @@
  */
 module Ecommerce {
 	requires java.sql;
+	requires java.management;
+	requires jdk.httpserver;
 	requires org.junit.jupiter.api;
     requires org.junit.jupiter.engine;
+    requires jmh.core;
 }
\ No newline at end of file